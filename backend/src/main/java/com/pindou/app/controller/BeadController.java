@@ -6,10 +6,17 @@ import com.pindou.app.model.BeadStatus;
 import com.pindou.app.model.ColorExtractionDebugResult;
 import com.pindou.app.model.ColorRequirement;
 import com.pindou.app.model.GridAnalysisResult;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pindou.app.service.BeadService;
+import com.pindou.app.service.OcrDeadline;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -17,9 +24,15 @@ import java.util.Map;
 @RequestMapping("/api/beads")
 public class BeadController {
     private final BeadService beadService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final long defaultOcrTimeoutMillis;
 
-    public BeadController(BeadService beadService) {
+    public BeadController(
+            BeadService beadService,
+            @Value("${baidu.ocr.request-timeout-millis:180000}") long defaultOcrTimeoutMillis
+    ) {
         this.beadService = beadService;
+        this.defaultOcrTimeoutMillis = defaultOcrTimeoutMillis;
     }
 
     @GetMapping
@@ -111,6 +124,186 @@ public class BeadController {
 
         @SuppressWarnings("unchecked")
         Map<String, Object> rawQuantities = (Map<String, Object>) request.get("candidateQuantities");
+        Map<String, Integer> candidateQuantities = normalizeCandidateQuantities(rawQuantities);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> rawColorHex = (Map<String, Object>) request.get("candidateColorHex");
+        Map<String, String> candidateColorHex = normalizeCandidateColorHex(rawColorHex);
+        Long timeoutMs = request.get("timeoutMs") == null ? null : Long.valueOf(String.valueOf(request.get("timeoutMs")));
+        OcrDeadline deadline = resolveDeadline(timeoutMs);
+
+        if (cropRect == null) {
+            return beadService.analyzeGridFromBaidu(imageBase64, rows, cols, imageWidth, imageHeight, candidateCodes, candidateQuantities, candidateColorHex, deadline);
+        }
+        return beadService.analyzeGridFromBaidu(
+                imageBase64,
+                rows,
+                cols,
+                imageWidth,
+                imageHeight,
+                candidateCodes,
+                candidateQuantities,
+                candidateColorHex,
+                cropRect.x(),
+                cropRect.y(),
+                cropRect.width(),
+                cropRect.height(),
+                deadline
+        );
+    }
+
+    @PostMapping(value = "/extract-colors", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public List<ColorRequirement> extractColorsUpload(
+            @RequestPart("image") MultipartFile image,
+            @RequestParam(required = false) Integer cropX,
+            @RequestParam(required = false) Integer cropY,
+            @RequestParam(required = false) Integer cropWidth,
+            @RequestParam(required = false) Integer cropHeight
+    ) {
+        return beadService.extractColorsFromImageBytes(readUpload(image), cropX, cropY, cropWidth, cropHeight);
+    }
+
+    @PostMapping(value = "/extract-colors", consumes = {
+            MediaType.APPLICATION_OCTET_STREAM_VALUE, MediaType.IMAGE_PNG_VALUE, MediaType.IMAGE_JPEG_VALUE
+    })
+    public List<ColorRequirement> extractColorsBinary(
+            @RequestBody byte[] image,
+            @RequestParam(required = false) Integer cropX,
+            @RequestParam(required = false) Integer cropY,
+            @RequestParam(required = false) Integer cropWidth,
+            @RequestParam(required = false) Integer cropHeight
+    ) {
+        return beadService.extractColorsFromImageBytes(image, cropX, cropY, cropWidth, cropHeight);
+    }
+
+    @PostMapping(value = "/extract-colors-debug", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ColorExtractionDebugResult extractColorsDebugUpload(
+            @RequestPart("image") MultipartFile image,
+            @RequestParam(required = false) Integer cropX,
+            @RequestParam(required = false) Integer cropY,
+            @RequestParam(required = false) Integer cropWidth,
+            @RequestParam(required = false) Integer cropHeight
+    ) {
+        return beadService.extractColorsDebugFromImageBytes(readUpload(image), cropX, cropY, cropWidth, cropHeight);
+    }
+
+    @PostMapping(value = "/extract-colors-debug", consumes = {
+            MediaType.APPLICATION_OCTET_STREAM_VALUE, MediaType.IMAGE_PNG_VALUE, MediaType.IMAGE_JPEG_VALUE
+    })
+    public ColorExtractionDebugResult extractColorsDebugBinary(
+            @RequestBody byte[] image,
+            @RequestParam(required = false) Integer cropX,
+            @RequestParam(required = false) Integer cropY,
+            @RequestParam(required = false) Integer cropWidth,
+            @RequestParam(required = false) Integer cropHeight
+    ) {
+        return beadService.extractColorsDebugFromImageBytes(image, cropX, cropY, cropWidth, cropHeight);
+    }
+
+    @PostMapping(value = "/analyze-grid", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public GridAnalysisResult analyzeGridUpload(
+            @RequestPart("image") MultipartFile image,
+            @RequestParam(required = false) Integer rows,
+            @RequestParam(required = false) Integer cols,
+            @RequestParam(required = false) Integer imageWidth,
+            @RequestParam(required = false) Integer imageHeight,
+            @RequestParam(required = false) List<String> candidateCodes,
+            @RequestParam(required = false) String candidateQuantities,
+            @RequestParam(required = false) String candidateColorHex,
+            @RequestParam(required = false) Integer cropX,
+            @RequestParam(required = false) Integer cropY,
+            @RequestParam(required = false) Integer cropWidth,
+            @RequestParam(required = false) Integer cropHeight,
+            @RequestParam(required = false) Long timeoutMs
+    ) {
+        return beadService.analyzeGridFromImageBytes(
+                readUpload(image),
+                rows,
+                cols,
+                imageWidth,
+                imageHeight,
+                candidateCodes,
+                normalizeCandidateQuantities(parseJsonField("candidateQuantities", candidateQuantities)),
+                normalizeCandidateColorHex(parseJsonField("candidateColorHex", candidateColorHex)),
+                cropX,
+                cropY,
+                cropWidth,
+                cropHeight,
+                resolveDeadline(timeoutMs)
+        );
+    }
+
+    @PostMapping(value = "/analyze-grid", consumes = {
+            MediaType.APPLICATION_OCTET_STREAM_VALUE, MediaType.IMAGE_PNG_VALUE, MediaType.IMAGE_JPEG_VALUE
+    })
+    public GridAnalysisResult analyzeGridBinary(
+            @RequestBody byte[] image,
+            @RequestParam(required = false) Integer rows,
+            @RequestParam(required = false) Integer cols,
+            @RequestParam(required = false) Integer imageWidth,
+            @RequestParam(required = false) Integer imageHeight,
+            @RequestParam(required = false) List<String> candidateCodes,
+            @RequestParam(required = false) String candidateQuantities,
+            @RequestParam(required = false) String candidateColorHex,
+            @RequestParam(required = false) Integer cropX,
+            @RequestParam(required = false) Integer cropY,
+            @RequestParam(required = false) Integer cropWidth,
+            @RequestParam(required = false) Integer cropHeight,
+            @RequestParam(required = false) Long timeoutMs
+    ) {
+        return beadService.analyzeGridFromImageBytes(
+                image,
+                rows,
+                cols,
+                imageWidth,
+                imageHeight,
+                candidateCodes,
+                normalizeCandidateQuantities(parseJsonField("candidateQuantities", candidateQuantities)),
+                normalizeCandidateColorHex(parseJsonField("candidateColorHex", candidateColorHex)),
+                cropX,
+                cropY,
+                cropWidth,
+                cropHeight,
+                resolveDeadline(timeoutMs)
+        );
+    }
+
+    private OcrDeadline resolveDeadline(Long timeoutMs) {
+        if (timeoutMs == null) {
+            return OcrDeadline.after(defaultOcrTimeoutMillis);
+        }
+        if (timeoutMs <= 0) {
+            throw new IllegalArgumentException("timeoutMs 必须大于 0");
+        }
+        if (defaultOcrTimeoutMillis > 0) {
+            return OcrDeadline.after(Math.min(timeoutMs, defaultOcrTimeoutMillis));
+        }
+        return OcrDeadline.after(timeoutMs);
+    }
+
+    private byte[] readUpload(MultipartFile image) {
+        if (image == null || image.isEmpty()) {
+            return null;
+        }
+        try {
+            return image.getBytes();
+        } catch (IOException exception) {
+            throw new IllegalArgumentException("读取上传图片失败: " + exception.getMessage(), exception);
+        }
+    }
+
+    private Map<String, Object> parseJsonField(String name, String json) {
+        if (json == null || json.isBlank()) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {});
+        } catch (Exception exception) {
+            throw new IllegalArgumentException(name + " 不是有效的 JSON 对象", exception);
+        }
+    }
+
+    private Map<String, Integer> normalizeCandidateQuantities(Map<String, Object> rawQuantities) {
         Map<String, Integer> candidateQuantities = new java.util.HashMap<>();
         if (rawQuantities != null) {
             for (Map.Entry<String, Object> entry : rawQuantities.entrySet()) {
@@ -123,9 +316,10 @@ public class BeadController {
                 }
             }
         }
+        return candidateQuantities;
+    }
 
-        @SuppressWarnings("unchecked")
-        Map<String, Object> rawColorHex = (Map<String, Object>) request.get("candidateColorHex");
+    private Map<String, String> normalizeCandidateColorHex(Map<String, Object> rawColorHex) {
         Map<String, String> candidateColorHex = new java.util.HashMap<>();
         if (rawColorHex != null) {
             for (Map.Entry<String, Object> entry : rawColorHex.entrySet()) {
@@ -139,24 +333,7 @@ public class BeadController {
                 }
             }
         }
-
-        if (cropRect == null) {
-            return beadService.analyzeGridFromBaidu(imageBase64, rows, cols, imageWidth, imageHeight, candidateCodes, candidateQuantities, candidateColorHex);
-        }
-        return beadService.analyzeGridFromBaidu(
-                imageBase64,
-                rows,
-                cols,
-                imageWidth,
-                imageHeight,
-                candidateCodes,
-                candidateQuantities,
-                candidateColorHex,
-                cropRect.x(),
-                cropRect.y(),
-                cropRect.width(),
-                cropRect.height()
-        );
+        return candidateColorHex;
     }
 
     @SuppressWarnings("unchecked")
@@ -321,12 +498,17 @@ public class BeadController {
     }
 
     @GetMapping("/ocr-settings")
-    public Map<String, String> getOcrSettings() {
+    public Map<String, Object> getOcrSettings() {
         return beadService.getOcrSettings();
     }
 
+    @GetMapping("/ocr-metrics")
+    public Map<String, Object> getOcrMetrics() {
+        return beadService.getOcrMetrics();
+    }
+
     @PutMapping("/ocr-settings")
-    public Map<String, String> saveOcrSettings(@RequestBody Map<String, Object> request) {
+    public Map<String, Object> saveOcrSettings(@RequestBody Map<String, Object> request) {
         return beadService.saveOcrSettings(request);
     }
 }
@@ -9,6 +9,7 @@ public class GridAnalysisResult {
     private int ocrCount;
     private int filledCount;
     private String ocrServiceSummary;
+    private boolean partial;
     private List<GridAnalysisCell> cells = new ArrayList<>();
 
     public int getRows() {
@@ -51,6 +52,14 @@ public class GridAnalysisResult {
         this.ocrServiceSummary = ocrServiceSummary;
     }
 
+    public boolean isPartial() {
+        return partial;
+    }
+
+    public void setPartial(boolean partial) {
+        this.partial = partial;
+    }
+
     public List<GridAnalysisCell> getCells() {
         return cells;
     }
@@ -0,0 +1,300 @@
+package com.pindou.app.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class BaiduOcrClient {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BaiduOcrClient.class);
+    private static final String OCR_BASE_URL = "https://aip.baidubce.com/rest/2.0/ocr/v1/";
+
+    private final BaiduTokenCache baiduTokenCache;
+    private final OcrCredentialPool credentialPool;
+    private final OcrResponseCache responseCache;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final OcrRateLimiter rateLimiter;
+    private final int maxInFlight;
+    private final boolean hedgeEnabled;
+    private final double hedgePercentile;
+    private final long hedgeInitialDelayMillis;
+    private final long hedgeMinDelayMillis;
+    private final long hedgeMaxDelayMillis;
+    private final int hedgeMinSamples;
+    private final Map<String, OcrLatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+    public BaiduOcrClient(
+            BaiduTokenCache baiduTokenCache,
+            OcrCredentialPool credentialPool,
+            OcrResponseCache responseCache,
+            @Value("${baidu.ocr.rate.permits-per-second:2}") double permitsPerSecond,
+            @Value("${baidu.ocr.rate.burst:1}") int burst,
+            @Value("${baidu.ocr.max-in-flight-per-credential:4}") int maxInFlight,
+            @Value("${baidu.ocr.hedge.enabled:true}") boolean hedgeEnabled,
+            @Value("${baidu.ocr.hedge.percentile:0.9}") double hedgePercentile,
+            @Value("${baidu.ocr.hedge.initial-delay-millis:3000}") long hedgeInitialDelayMillis,
+            @Value("${baidu.ocr.hedge.min-delay-millis:300}") long hedgeMinDelayMillis,
+            @Value("${baidu.ocr.hedge.max-delay-millis:10000}") long hedgeMaxDelayMillis,
+            @Value("${baidu.ocr.hedge.min-samples:20}") int hedgeMinSamples
+    ) {
+        this.baiduTokenCache = baiduTokenCache;
+        this.credentialPool = credentialPool;
+        this.responseCache = responseCache;
+        this.rateLimiter = new OcrRateLimiter(permitsPerSecond, burst);
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgePercentile = Math.max(0.5, Math.min(0.999, hedgePercentile));
+        this.hedgeMinDelayMillis = Math.max(0L, hedgeMinDelayMillis);
+        this.hedgeMaxDelayMillis = Math.max(this.hedgeMinDelayMillis, hedgeMaxDelayMillis);
+        this.hedgeInitialDelayMillis = Math.max(this.hedgeMinDelayMillis, Math.min(this.hedgeMaxDelayMillis, hedgeInitialDelayMillis));
+        this.hedgeMinSamples = Math.max(1, hedgeMinSamples);
+    }
+
+    public int maxInFlight() {
+        return maxInFlight * Math.max(1, credentialPool.healthyCount());
+    }
+
+    public List<Map<String, Object>> rateLimitSnapshot() {
+        return rateLimiter.snapshot();
+    }
+
+    public List<Map<String, Object>> credentialSnapshot() {
+        return credentialPool.snapshot();
+    }
+
+    public long hedgeDelayMillis(String endpoint) {
+        if (!hedgeEnabled) {
+            return -1L;
+        }
+        OcrLatencyHistogram histogram = latencies.get(endpoint);
+        if (histogram == null || histogram.count() < hedgeMinSamples) {
+            return hedgeInitialDelayMillis;
+        }
+        long delay = histogram.percentileMillis(hedgePercentile);
+        return Math.max(hedgeMinDelayMillis, Math.min(hedgeMaxDelayMillis, delay));
+    }
+
+    public List<Map<String, Object>> latencySnapshot() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (OcrLatencyHistogram histogram : latencies.values()) {
+            Map<String, Object> item = histogram.snapshot();
+            item.put("hedgeDelayMillis", hedgeDelayMillis(String.valueOf(item.get("endpoint"))));
+            result.add(item);
+        }
+        result.sort(Comparator.comparing(item -> String.valueOf(item.get("endpoint"))));
+        return result;
+    }
+
+    public Map<String, Object> responseCacheSnapshot() {
+        return responseCache.snapshot();
+    }
+
+    public CompletableFuture<JsonNode> recognize(
+            byte[] image,
+            String contentHash,
+            String endpoint,
+            boolean detectDirection,
+            boolean needLocation,
+            String serviceName,
+            CompletableFuture<Void> dispatched
+    ) {
+        CompletableFuture<JsonNode> result = new CompletableFuture<>();
+        result.whenComplete((root, error) -> dispatched.complete(null));
+        String cacheKey = responseCache.key(contentHash, endpoint, detectDirection, needLocation);
+        String cachedBody = responseCache.get(cacheKey);
+        if (cachedBody != null) {
+            try {
+                result.complete(objectMapper.readTree(cachedBody));
+                return result;
+            } catch (Exception ignored) {
+            }
+        }
+
+        attempt(result, dispatched, new HashSet<>(), null, cacheKey, image, endpoint, detectDirection, needLocation, serviceName);
+        return result;
+    }
+
+    private void attempt(
+            CompletableFuture<JsonNode> result,
+            CompletableFuture<Void> dispatched,
+            Set<String> tried,
+            RuntimeException lastQuotaError,
+            String cacheKey,
+            byte[] image,
+            String endpoint,
+            boolean detectDirection,
+            boolean needLocation,
+            String serviceName
+    ) {
+        if (result.isDone()) {
+            return;
+        }
+        OcrCredentialPool.Credential credential = credentialPool.acquire(tried);
+        if (credential == null) {
+            result.completeExceptionally(lastQuotaError != null
+                    ? lastQuotaError
+                    : new IllegalStateException(serviceName + " 暂无可用凭据: " + credentialPool.unavailableReason()));
+            return;
+        }
+        tried.add(credential.id());
+
+        baiduTokenCache.getAccessTokenAsync(credential.ak(), credential.sk()).whenComplete((accessToken, tokenError) -> {
+            HttpRequest request;
+            try {
+                if (tokenError != null) {
+                    throw tokenError instanceof CompletionException && tokenError.getCause() instanceof RuntimeException cause
+                            ? cause
+                            : new IllegalStateException(tokenError.getMessage(), tokenError);
+                }
+                request = buildRequest(accessToken, image, endpoint, detectDirection, needLocation);
+            } catch (RuntimeException exception) {
+                credentialPool.recordFailure(credential, exception.getMessage());
+                attempt(result, dispatched, tried, lastQuotaError, cacheKey, image, endpoint, detectDirection, needLocation, serviceName);
+                return;
+            }
+            send(result, dispatched, tried, credential, accessToken, request, cacheKey, image, endpoint, detectDirection, needLocation, serviceName);
+        });
+    }
+
+    private void send(
+            CompletableFuture<JsonNode> result,
+            CompletableFuture<Void> dispatched,
+            Set<String> tried,
+            OcrCredentialPool.Credential credential,
+            String accessToken,
+            HttpRequest request,
+            String cacheKey,
+            byte[] image,
+            String endpoint,
+            boolean detectDirection,
+            boolean needLocation,
+            String serviceName
+    ) {
+        if (result.isDone()) {
+            return;
+        }
+        long delayNanos = rateLimiter.reserve(credential.id(), endpoint);
+        Executor dispatcher = delayNanos > 0
+                ? CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS)
+                : Runnable::run;
+        dispatcher.execute(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            long sentAt = System.nanoTime();
+            CompletableFuture<HttpResponse<String>> exchange = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+            dispatched.complete(null);
+            result.whenComplete((ignored, error) -> {
+                if (result.isCancelled() && !exchange.isDone()) {
+                    exchange.cancel(true);
+                    latencies.computeIfAbsent(endpoint, OcrLatencyHistogram::new).recordCensored();
+                }
+            });
+            exchange.whenComplete((response, error) -> {
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    if (result.isCancelled() || cause instanceof CancellationException) {
+                        return;
+                    }
+                    credentialPool.recordFailure(credential, cause.getMessage());
+                    result.completeExceptionally(new IllegalStateException(serviceName + " 调用异常: " + cause.getMessage(), cause));
+                    return;
+                }
+                JsonNode root;
+                try {
+                    root = parseResponse(response, accessToken, serviceName);
+                } catch (RuntimeException exception) {
+                    String message = exception.getMessage();
+                    if (isQuotaError(message)) {
+                        credentialPool.recordQuotaExhausted(credential, message.contains("[18]"), message);
+                        attempt(result, dispatched, tried, exception, cacheKey, image, endpoint, detectDirection, needLocation, serviceName);
+                        return;
+                    }
+                    if (message != null && (message.contains("[110]") || message.contains("[111]") || message.contains("HTTP"))) {
+                        credentialPool.recordFailure(credential, message);
+                    }
+                    result.completeExceptionally(exception);
+                    return;
+                }
+                credentialPool.recordSuccess(credential);
+                recordLatency(endpoint, sentAt);
+                result.complete(root);
+                try {
+                    responseCache.put(cacheKey, response.body());
+                } catch (RuntimeException exception) {
+                    LOGGER.warn("ocr-cache: failed to store {} response. reason={}", serviceName, exception.getMessage());
+                }
+            });
+        });
+    }
+
+    private void recordLatency(String endpoint, long sentAt) {
+        latencies.computeIfAbsent(endpoint, OcrLatencyHistogram::new)
+                .record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sentAt));
+    }
+
+    private boolean isQuotaError(String message) {
+        if (message == null) {
+            return false;
+        }
+        return message.contains("[17]") || message.contains("[18]") || message.contains("[19]") || message.contains("request limit");
+    }
+
+    private HttpRequest buildRequest(String accessToken, byte[] image, String endpoint, boolean detectDirection, boolean needLocation) {
+        String url = OCR_BASE_URL + endpoint + "?access_token=" + URLEncoder.encode(accessToken, StandardCharsets.UTF_8);
+
+        String parameters = "&detect_direction=" + detectDirection + "&probability=false"
+                + (needLocation ? "&vertexes_location=false" : "");
+
+        return HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(OcrFormBody.of("image", image, parameters))
+                .build();
+    }
+
+    private JsonNode parseResponse(HttpResponse<String> response, String accessToken, String serviceName) {
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            throw new IllegalStateException(serviceName + " 调用失败，HTTP " + response.statusCode());
+        }
+
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(response.body());
+        } catch (Exception exception) {
+            throw new IllegalStateException(serviceName + " 调用异常: " + exception.getMessage(), exception);
+        }
+        if (root.hasNonNull("error_code")) {
+            int code = root.path("error_code").asInt();
+            String message = root.path("error_msg").asText("unknown");
+            if (code == 110 || code == 111) {
+                baiduTokenCache.invalidate(accessToken);
+            }
+            throw new IllegalStateException(serviceName + " 错误[" + code + "]: " + message);
+        }
+        return root;
+    }
+}
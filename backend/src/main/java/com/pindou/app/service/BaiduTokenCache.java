@@ -0,0 +1,252 @@
+package com.pindou.app.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pindou.app.model.AppSetting;
+import com.pindou.app.repository.AppSettingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Component
+public class BaiduTokenCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BaiduTokenCache.class);
+    private static final String SETTING_KEY_PREFIX = "baidu.ocr.token.";
+    private static final long EXPIRY_SAFETY_MILLIS = 60_000L;
+    private static final long DEFAULT_EXPIRES_IN_SECONDS = 2_592_000L;
+
+    private final AppSettingRepository appSettingRepository;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final Map<String, CachedToken> tokens = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<CachedToken>> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService storeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "baidu-token-store");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final long refreshMarginMillis;
+    private final boolean persist;
+
+    public BaiduTokenCache(
+            AppSettingRepository appSettingRepository,
+            @Value("${baidu.ocr.token.refresh-margin-seconds:86400}") long refreshMarginSeconds,
+            @Value("${baidu.ocr.token.persist:false}") boolean persist
+    ) {
+        this.appSettingRepository = appSettingRepository;
+        this.refreshMarginMillis = Math.max(0L, refreshMarginSeconds) * 1000L;
+        this.persist = persist;
+    }
+
+    public CompletableFuture<String> getAccessTokenAsync(String ak, String sk) {
+        if (ak == null || ak.isBlank() || sk == null || sk.isBlank()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("百度 OCR ak/sk 不能为空"));
+        }
+        String key = cacheKey(ak, sk);
+        CachedToken cached = tokens.get(key);
+        if (cached == null && persist) {
+            return CompletableFuture.supplyAsync(() -> tokens.computeIfAbsent(key, this::loadPersisted), storeExecutor)
+                    .thenCompose(loaded -> resolve(key, ak, sk, loaded));
+        }
+        return resolve(key, ak, sk, cached);
+    }
+
+    public void invalidate(String accessToken) {
+        if (accessToken == null) {
+            return;
+        }
+        tokens.entrySet().removeIf(entry -> {
+            if (!accessToken.equals(entry.getValue().accessToken())) {
+                return false;
+            }
+            String key = entry.getKey();
+            storeExecutor.execute(() -> deletePersisted(key));
+            return true;
+        });
+    }
+
+    private CompletableFuture<String> resolve(String key, String ak, String sk, CachedToken cached) {
+        long now = System.currentTimeMillis();
+        if (cached != null && cached.isUsable(now)) {
+            if (cached.shouldRefresh(now) && !inFlight.containsKey(key)) {
+                refresh(key, ak, sk).whenComplete((token, error) -> {
+                    if (error != null) {
+                        LOGGER.warn("baidu-token: background refresh failed, keep current token. reason={}", unwrap(error).getMessage());
+                    }
+                });
+            }
+            return CompletableFuture.completedFuture(cached.accessToken());
+        }
+        return refresh(key, ak, sk).thenApply(CachedToken::accessToken);
+    }
+
+    private CompletableFuture<CachedToken> refresh(String key, String ak, String sk) {
+        CompletableFuture<CachedToken> created = new CompletableFuture<>();
+        CompletableFuture<CachedToken> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+        long fetchedAt = System.currentTimeMillis();
+        CompletableFuture<HttpResponse<String>> exchange;
+        try {
+            exchange = httpClient.sendAsync(tokenRequest(ak, sk), HttpResponse.BodyHandlers.ofString());
+        } catch (RuntimeException exception) {
+            exchange = CompletableFuture.failedFuture(exception);
+        }
+        exchange.thenApplyAsync(response -> {
+                    CachedToken token = parseToken(response, fetchedAt);
+                    tokens.put(key, token);
+                    savePersisted(key, token);
+                    return token;
+                }, storeExecutor)
+                .whenComplete((token, error) -> {
+                    inFlight.remove(key, created);
+                    if (error != null) {
+                        Throwable cause = unwrap(error);
+                        created.completeExceptionally(cause instanceof IllegalStateException
+                                ? cause
+                                : new IllegalStateException("调用百度 Token 接口失败: " + cause.getMessage(), cause));
+                    } else {
+                        created.complete(token);
+                    }
+                });
+        return created;
+    }
+
+    private HttpRequest tokenRequest(String ak, String sk) {
+        String url = "https://aip.baidubce.com/oauth/2.0/token"
+                + "?grant_type=client_credentials"
+                + "&client_id=" + URLEncoder.encode(ak, StandardCharsets.UTF_8)
+                + "&client_secret=" + URLEncoder.encode(sk, StandardCharsets.UTF_8);
+
+        return HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    private CachedToken parseToken(HttpResponse<String> response, long fetchedAt) {
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            throw new IllegalStateException("获取百度 OCR Token 失败，HTTP " + response.statusCode());
+        }
+
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(response.body());
+        } catch (Exception exception) {
+            throw new IllegalStateException("调用百度 Token 接口失败: " + exception.getMessage(), exception);
+        }
+        if (root.hasNonNull("error")) {
+            String message = root.path("error_description").asText(root.path("error").asText("unknown"));
+            throw new IllegalStateException("百度 Token 错误: " + message);
+        }
+
+        String accessToken = root.path("access_token").asText();
+        if (accessToken == null || accessToken.isBlank()) {
+            throw new IllegalStateException("百度 Token 响应中缺少 access_token");
+        }
+        long expiresInMillis = Math.max(0L, root.path("expires_in").asLong(DEFAULT_EXPIRES_IN_SECONDS)) * 1000L;
+        CachedToken token = CachedToken.issued(accessToken, fetchedAt, expiresInMillis, refreshMarginMillis);
+        LOGGER.info("baidu-token: fetched, expiresIn={}s", expiresInMillis / 1000L);
+        return token;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private CachedToken loadPersisted(String key) {
+        if (!persist) {
+            return null;
+        }
+        try {
+            String value = appSettingRepository.findById(SETTING_KEY_PREFIX + key)
+                    .map(AppSetting::getValue)
+                    .orElse(null);
+            if (value == null || value.isBlank()) {
+                return null;
+            }
+            JsonNode root = objectMapper.readTree(value);
+            String accessToken = root.path("accessToken").asText("");
+            long expiresAt = root.path("expiresAt").asLong(0L);
+            long refreshAt = root.path("refreshAt").asLong(expiresAt);
+            if (accessToken.isBlank() || expiresAt <= System.currentTimeMillis()) {
+                return null;
+            }
+            return new CachedToken(accessToken, expiresAt, refreshAt);
+        } catch (Exception exception) {
+            LOGGER.warn("baidu-token: failed to load persisted token. reason={}", exception.getMessage());
+            return null;
+        }
+    }
+
+    private void savePersisted(String key, CachedToken token) {
+        if (!persist) {
+            return;
+        }
+        try {
+            String value = objectMapper.createObjectNode()
+                    .put("accessToken", token.accessToken())
+                    .put("expiresAt", token.expiresAt())
+                    .put("refreshAt", token.refreshAt())
+                    .toString();
+            appSettingRepository.save(new AppSetting(SETTING_KEY_PREFIX + key, value));
+        } catch (Exception exception) {
+            LOGGER.warn("baidu-token: failed to persist token. reason={}", exception.getMessage());
+        }
+    }
+
+    private void deletePersisted(String key) {
+        if (!persist) {
+            return;
+        }
+        try {
+            appSettingRepository.deleteById(SETTING_KEY_PREFIX + key);
+        } catch (Exception exception) {
+            LOGGER.warn("baidu-token: failed to delete persisted token. reason={}", exception.getMessage());
+        }
+    }
+
+    private static String cacheKey(String ak, String sk) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((ak + "\n" + sk).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (Exception exception) {
+            throw new IllegalStateException("计算 Token 缓存键失败: " + exception.getMessage(), exception);
+        }
+    }
+
+    private record CachedToken(String accessToken, long expiresAt, long refreshAt) {
+        static CachedToken issued(String accessToken, long fetchedAt, long expiresInMillis, long refreshMarginMillis) {
+            long expiresAt = fetchedAt + expiresInMillis;
+            long margin = Math.min(refreshMarginMillis, expiresInMillis / 2);
+            return new CachedToken(accessToken, expiresAt, expiresAt - margin);
+        }
+
+        boolean isUsable(long now) {
+            return now < expiresAt - EXPIRY_SAFETY_MILLIS;
+        }
+
+        boolean shouldRefresh(long now) {
+            return now >= refreshAt;
+        }
+    }
+}
@@ -9,47 +9,67 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.net.URI;
 import java.net.URLDecoder;
-import java.net.URLEncoder;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 @Service
 public class BeadService {
     private static final Logger LOGGER = LoggerFactory.getLogger(BeadService.class);
-    private static final Object OCR_RATE_LIMIT_LOCK = new Object();
-    private static final long OCR_MIN_INTERVAL_NANOS = 500_000_000L;
-    private static long lastOcrRequestNanos = 0L;
+    private static final int PALETTE_MATCHER_CACHE_SIZE = 16;
 
     private final BeadProjectRepository projectRepository;
     private final AppSettingRepository appSettingRepository;
     private final TagOptionRepository tagOptionRepository;
+    private final ImageCodec imageCodec;
+    private final OcrCredentialPool credentialPool;
+    private final BaiduOcrClient baiduOcrClient;
+    private final ColorPalette palette;
+    private final GridCpuPool gridCpuPool;
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final HttpClient httpClient = HttpClient.newHttpClient();
-    private final ThreadLocal<LinkedHashSet<String>> ocrServicesUsed = ThreadLocal.withInitial(LinkedHashSet::new);
+    private final Map<String, CompletableFuture<Object>> inFlightRecognitions = new ConcurrentHashMap<>();
+    private final Map<String, CandidateMatcher> paletteMatchers = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CandidateMatcher> eldest) {
+            return size() > PALETTE_MATCHER_CACHE_SIZE;
+        }
+    };
+    private volatile boolean credentialPoolConfigured;
+    private final ThreadLocal<Set<String>> ocrServicesUsed = ThreadLocal.withInitial(() -> Collections.synchronizedSet(new LinkedHashSet<>()));
 
     @Value("${baidu.ocr.ak:}")
     private String baiduApiKey;
@@ -63,14 +83,42 @@ public class BeadService {
     @Value("${baidu.ocr.sk2:}")
     private String baiduSecretKey2;
 
+    @Value("${image.decode.max-side:8192}")
+    private int maxDecodeSide;
+
+    @Value("${baidu.ocr.variant-parallelism:2}")
+    private int ocrVariantParallelism;
+
+    @Value("${baidu.ocr.mosaic.enabled:true}")
+    private boolean ocrMosaicEnabled;
+
+    @Value("${baidu.ocr.mosaic.max-side:2048}")
+    private int ocrMosaicMaxSide;
+
+    @Value("${baidu.ocr.mosaic.max-tiles:6}")
+    private int ocrMosaicMaxTiles;
+
+    @Value("${baidu.ocr.mosaic.gutter:48}")
+    private int ocrMosaicGutter;
+
     public BeadService(
             BeadProjectRepository projectRepository,
             AppSettingRepository appSettingRepository,
-            TagOptionRepository tagOptionRepository
+            TagOptionRepository tagOptionRepository,
+            ImageCodec imageCodec,
+            OcrCredentialPool credentialPool,
+            BaiduOcrClient baiduOcrClient,
+            ColorPalette palette,
+            GridCpuPool gridCpuPool
     ) {
         this.projectRepository = projectRepository;
         this.appSettingRepository = appSettingRepository;
         this.tagOptionRepository = tagOptionRepository;
+        this.imageCodec = imageCodec;
+        this.credentialPool = credentialPool;
+        this.baiduOcrClient = baiduOcrClient;
+        this.palette = palette;
+        this.gridCpuPool = gridCpuPool;
     }
 
     public List<BeadProject> list() {
@@ -153,7 +201,7 @@ public class BeadService {
         List<String> safeCells = cells == null ? new ArrayList<>() : cells;
         List<String> normalizedCells = new ArrayList<>(safeCells.size());
         for (String cell : safeCells) {
-            String normalized = normalizeColorCode(cell);
+            String normalized = palette.normalize(cell);
             normalizedCells.add(normalized);
         }
         try {
@@ -165,87 +213,85 @@ public class BeadService {
     }
 
     public List<ColorRequirement> extractColorsFromBaidu(String imageBase64) {
-        String base64 = stripDataUrlPrefix(imageBase64);
-        logImagePayloadDiagnostics("extract-colors", imageBase64, base64);
-        if (base64 == null || base64.isBlank()) {
-            return List.of();
-        }
-        base64 = normalizeImageBase64ForOcr(base64);
+        return coalesceExtraction(recognitionKey("extract-colors", imageBase64), () -> {
+            String base64 = stripDataUrlPrefix(imageBase64);
+            if (base64 == null || base64.isBlank()) {
+                logImagePayloadDiagnostics("extract-colors", imageBase64, null);
+                return List.of();
+            }
+            DecodedImage source = DecodedImage.ofBase64(base64);
+            logImagePayloadDiagnostics("extract-colors", imageBase64, source);
+            return extractColorsFromBaidu(normalizeImageForOcr(source));
+        });
+    }
 
-        List<String> variants = buildGridOcrVariants(base64);
-        if (variants == null || variants.isEmpty()) {
-            variants = List.of(base64);
+    private List<ColorRequirement> extractColorsFromBaidu(DecodedImage image) {
+        Iterable<DecodedImage> variants = buildGridOcrVariants(image);
+        if (!variants.iterator().hasNext()) {
+            variants = List.of(image);
         }
 
-        List<KeyPair> keyPairs = buildKeyPairs();
-        if (keyPairs.isEmpty()) {
-            throw new IllegalStateException("百度 OCR 未配置，请在 backend/application.yml 或环境变量中设置 baidu.ocr.ak / baidu.ocr.sk");
-        }
+        requireCredentialPool();
 
         RuntimeException lastError = null;
-        for (KeyPair keyPair : keyPairs) {
-            try {
-                String accessToken = fetchBaiduAccessToken(keyPair.ak(), keyPair.sk());
+        try {
+            OcrSession session = ocrSession();
 
-                List<ColorRequirement> bestByLocation = List.of();
-                List<ColorRequirement> bestByText = List.of();
+            List<ColorRequirement> bestByLocation = List.of();
+            List<ColorRequirement> bestByText = List.of();
 
-                for (String variant : variants) {
-                    boolean usedTileFallback = false;
-                    try {
-                        List<OcrWordBox> words = fetchBaiduOcrWordsWithLocation(accessToken, variant);
-                        List<ColorRequirement> byLocation = parseColorRequirementsByLocation(words);
-                        if (isBetterColorRequirements(byLocation, bestByLocation)) {
-                            bestByLocation = byLocation;
+            for (DecodedImage variant : variants) {
+                boolean usedTileFallback = false;
+                try {
+                    List<OcrWordBox> words = fetchBaiduOcrWordsWithLocation(session, variant);
+                    List<ColorRequirement> byLocation = parseColorRequirementsByLocation(words);
+                    if (isBetterColorRequirements(byLocation, bestByLocation)) {
+                        bestByLocation = byLocation;
+                    }
+                } catch (RuntimeException locationException) {
+                    if (!isImageSizeOrFormatError(locationException.getMessage())) {
+                        LOGGER.warn("OCR location failed, continue with raw-text parsing. reason={}", locationException.getMessage());
+                    } else {
+                        ColorExtractionBundle tiled = extractColorsByTiledOcr(session, variant);
+                        if (isBetterColorRequirements(tiled.byLocation(), bestByLocation)) {
+                            bestByLocation = tiled.byLocation();
                         }
-                    } catch (RuntimeException locationException) {
-                        if (!isImageSizeOrFormatError(locationException.getMessage())) {
-                            LOGGER.warn("OCR location failed, continue with raw-text parsing. reason={}", locationException.getMessage());
-                        } else {
-                            ColorExtractionBundle tiled = extractColorsByTiledOcr(accessToken, variant);
-                            if (isBetterColorRequirements(tiled.byLocation(), bestByLocation)) {
-                                bestByLocation = tiled.byLocation();
-                            }
-                            if (isBetterColorRequirements(tiled.byText(), bestByText)) {
-                                bestByText = tiled.byText();
-                            }
-                            usedTileFallback = true;
+                        if (isBetterColorRequirements(tiled.byText(), bestByText)) {
+                            bestByText = tiled.byText();
                         }
+                        usedTileFallback = true;
                     }
+                }
 
-                    if (!usedTileFallback) {
-                        try {
-                            String text = fetchBaiduOcrRawText(accessToken, variant);
-                            List<ColorRequirement> byText = parseColorRequirements(text);
-                            if (isBetterColorRequirements(byText, bestByText)) {
-                                bestByText = byText;
-                            }
-                        } catch (RuntimeException imageSizeException) {
-                            if (!isImageSizeOrFormatError(imageSizeException.getMessage())) {
-                                throw imageSizeException;
-                            }
-                            ColorExtractionBundle tiled = extractColorsByTiledOcr(accessToken, variant);
-                            if (isBetterColorRequirements(tiled.byLocation(), bestByLocation)) {
-                                bestByLocation = tiled.byLocation();
-                            }
-                            if (isBetterColorRequirements(tiled.byText(), bestByText)) {
-                                bestByText = tiled.byText();
-                            }
+                if (!usedTileFallback) {
+                    try {
+                        String text = fetchBaiduOcrRawText(session, variant);
+                        List<ColorRequirement> byText = parseColorRequirements(text);
+                        if (isBetterColorRequirements(byText, bestByText)) {
+                            bestByText = byText;
+                        }
+                    } catch (RuntimeException imageSizeException) {
+                        if (!isImageSizeOrFormatError(imageSizeException.getMessage())) {
+                            throw imageSizeException;
+                        }
+                        ColorExtractionBundle tiled = extractColorsByTiledOcr(session, variant);
+                        if (isBetterColorRequirements(tiled.byLocation(), bestByLocation)) {
+                            bestByLocation = tiled.byLocation();
+                        }
+                        if (isBetterColorRequirements(tiled.byText(), bestByText)) {
+                            bestByText = tiled.byText();
                         }
                     }
                 }
+            }
 
-                List<ColorRequirement> preferred = pickPreferredColorRequirements(bestByLocation, bestByText);
-                if (!preferred.isEmpty()) {
-                    return preferred;
-                }
-                return List.of();
-            } catch (RuntimeException exception) {
-                lastError = exception;
-                if (!isQuotaError(exception.getMessage())) {
-                    break;
-                }
+            List<ColorRequirement> preferred = pickPreferredColorRequirements(bestByLocation, bestByText);
+            if (!preferred.isEmpty()) {
+                return preferred;
             }
+            return List.of();
+        } catch (RuntimeException exception) {
+            lastError = exception;
         }
 
         if (lastError != null) {
@@ -304,7 +350,7 @@ public class BeadService {
             if (item == null) {
                 continue;
             }
-            String code = normalizeColorCode(item.getCode());
+            String code = palette.normalize(item.getCode());
             int quantity = item.getQuantity() == null ? 0 : Math.max(0, item.getQuantity());
             if (code.isBlank() || quantity <= 0) {
                 continue;
@@ -358,109 +404,131 @@ public class BeadService {
             Integer cropWidth,
             Integer cropHeight
     ) {
-        String cropped = cropImageByRect(originalImageBase64, cropX, cropY, cropWidth, cropHeight);
-        if (cropped == null || cropped.isBlank()) {
-            return List.of();
-        }
-        return extractColorsFromBaidu(cropped);
+        return coalesceExtraction(recognitionKey("extract-colors", originalImageBase64, cropX, cropY, cropWidth, cropHeight), () -> {
+            DecodedImage cropped = cropImageByRect(originalImageBase64, cropX, cropY, cropWidth, cropHeight);
+            if (cropped == null) {
+                return List.of();
+            }
+            logImagePayloadDiagnostics("extract-colors", originalImageBase64, cropped);
+            return extractColorsFromBaidu(normalizeImageForOcr(cropped));
+        });
+    }
+
+    public List<ColorRequirement> extractColorsFromImageBytes(
+            byte[] imageBytes,
+            Integer cropX,
+            Integer cropY,
+            Integer cropWidth,
+            Integer cropHeight
+    ) {
+        return coalesceExtraction(recognitionKey("extract-colors", imageBytes, cropX, cropY, cropWidth, cropHeight), () -> {
+            if (imageBytes == null || imageBytes.length == 0) {
+                LOGGER.warn("extract-colors: empty binary upload");
+                return List.of();
+            }
+            DecodedImage cropped = cropImageByRect(DecodedImage.ofBytes(imageBytes), cropX, cropY, cropWidth, cropHeight);
+            if (cropped == null) {
+                return List.of();
+            }
+            logImagePayloadDiagnostics("extract-colors", null, cropped);
+            return extractColorsFromBaidu(normalizeImageForOcr(cropped));
+        });
     }
 
     public ColorExtractionDebugResult extractColorsDebugFromBaidu(String imageBase64) {
         resetOcrServiceUsage();
         String base64 = stripDataUrlPrefix(imageBase64);
-        logImagePayloadDiagnostics("extract-colors-debug", imageBase64, base64);
-        ColorExtractionDebugResult result = new ColorExtractionDebugResult();
-        result.setOcrServiceSummary("未调用OCR服务");
         if (base64 == null || base64.isBlank()) {
+            logImagePayloadDiagnostics("extract-colors-debug", imageBase64, null);
+            ColorExtractionDebugResult result = new ColorExtractionDebugResult();
             result.setStrategy("empty-image");
             result.setColors(List.of());
             result.setOcrServiceSummary(buildOcrServiceSummary());
             return result;
         }
-        base64 = normalizeImageBase64ForOcr(base64);
+        DecodedImage source = DecodedImage.ofBase64(base64);
+        logImagePayloadDiagnostics("extract-colors-debug", imageBase64, source);
+        return extractColorsDebugFromBaidu(normalizeImageForOcr(source));
+    }
 
-        List<KeyPair> keyPairs = buildKeyPairs();
-        if (keyPairs.isEmpty()) {
-            throw new IllegalStateException("百度 OCR 未配置，请在 backend/application.yml 或环境变量中设置 baidu.ocr.ak / baidu.ocr.sk");
-        }
+    private ColorExtractionDebugResult extractColorsDebugFromBaidu(DecodedImage image) {
+        ColorExtractionDebugResult result = new ColorExtractionDebugResult();
+        result.setOcrServiceSummary("未调用OCR服务");
+
+        requireCredentialPool();
 
         RuntimeException lastError = null;
-        for (KeyPair keyPair : keyPairs) {
+        try {
+            OcrSession session = ocrSession();
+
+            List<String> locationLinesDebug = new ArrayList<>();
+            List<String> pairLogs = new ArrayList<>();
+            pairLogs.add("payload诊断：" + diagnoseImagePayload(image));
+            List<ColorRequirement> byLocation = List.of();
+            String rawText = "";
+            RuntimeException locationException = null;
             try {
-                String accessToken = fetchBaiduAccessToken(keyPair.ak(), keyPair.sk());
-
-                List<String> locationLinesDebug = new ArrayList<>();
-                List<String> pairLogs = new ArrayList<>();
-                pairLogs.add("payload诊断：" + diagnoseBase64Payload(base64));
-                List<ColorRequirement> byLocation = List.of();
-                String rawText = "";
-                RuntimeException locationException = null;
-                try {
-                    List<OcrWordBox> words = fetchBaiduOcrWordsWithLocation(accessToken, base64);
-                    byLocation = parseColorRequirementsByLocation(words, locationLinesDebug, pairLogs);
-                } catch (RuntimeException imageSizeException) {
-                    if (!isImageSizeOrFormatError(imageSizeException.getMessage())) {
-                        locationException = imageSizeException;
-                    } else {
-                        pairLogs.add("触发分块识别：原图格式/尺寸触发 OCR 限制，改为分块识别并合并结果");
-                        ColorExtractionBundle tiled = extractColorsByTiledOcr(accessToken, base64);
-                        byLocation = tiled.byLocation();
-                        rawText = "[tiled-ocr]";
-                        if (tiled.tileLogs() != null && !tiled.tileLogs().isEmpty()) {
-                            pairLogs.addAll(tiled.tileLogs());
-                        }
-                    }
-                }
-
-                try {
-                    rawText = fetchBaiduOcrRawText(accessToken, base64);
-                } catch (RuntimeException rawTextException) {
-                    if (locationException != null) {
-                        throw locationException;
+                List<OcrWordBox> words = fetchBaiduOcrWordsWithLocation(session, image);
+                byLocation = parseColorRequirementsByLocation(words, locationLinesDebug, pairLogs);
+            } catch (RuntimeException imageSizeException) {
+                if (!isImageSizeOrFormatError(imageSizeException.getMessage())) {
+                    locationException = imageSizeException;
+                } else {
+                    pairLogs.add("触发分块识别：原图格式/尺寸触发 OCR 限制，改为分块识别并合并结果");
+                    ColorExtractionBundle tiled = extractColorsByTiledOcr(session, image);
+                    byLocation = tiled.byLocation();
+                    rawText = "[tiled-ocr]";
+                    if (tiled.tileLogs() != null && !tiled.tileLogs().isEmpty()) {
+                        pairLogs.addAll(tiled.tileLogs());
                     }
-                    throw rawTextException;
                 }
+            }
 
+            try {
+                rawText = fetchBaiduOcrRawText(session, image);
+            } catch (RuntimeException rawTextException) {
                 if (locationException != null) {
-                    pairLogs.add("坐标识别失败，已降级使用文本识别：" + locationException.getMessage());
+                    throw locationException;
                 }
+                throw rawTextException;
+            }
 
-                result.setLocationLines(locationLinesDebug);
-                result.setPairLogs(pairLogs);
-                result.setRawText(rawText);
+            if (locationException != null) {
+                pairLogs.add("坐标识别失败，已降级使用文本识别：" + locationException.getMessage());
+            }
 
-                List<String> fallbackLogs = new ArrayList<>();
-                List<ColorRequirement> byText = parseColorRequirements(rawText, fallbackLogs);
-                result.setFallbackLogs(fallbackLogs);
+            result.setLocationLines(locationLinesDebug);
+            result.setPairLogs(pairLogs);
+            result.setRawText(rawText);
 
-                List<ColorRequirement> preferred = pickPreferredColorRequirements(byLocation, byText);
-                if (preferred == byText && !byText.isEmpty()) {
-                    if (byLocation != null && !byLocation.isEmpty()) {
-                        pairLogs.add("location结果疑似噪声：已切换到文本解析结果");
-                    }
-                    result.setStrategy("text-" + resolvePairingStrategy(fallbackLogs));
-                    result.setColors(byText);
-                    result.setOcrServiceSummary(buildOcrServiceSummary());
-                    return result;
-                }
+            List<String> fallbackLogs = new ArrayList<>();
+            List<ColorRequirement> byText = parseColorRequirements(rawText, fallbackLogs);
+            result.setFallbackLogs(fallbackLogs);
 
+            List<ColorRequirement> preferred = pickPreferredColorRequirements(byLocation, byText);
+            if (preferred == byText && !byText.isEmpty()) {
                 if (byLocation != null && !byLocation.isEmpty()) {
-                    result.setStrategy("location-" + resolvePairingStrategy(pairLogs));
-                    result.setColors(byLocation);
-                    result.setOcrServiceSummary(buildOcrServiceSummary());
-                    return result;
+                    pairLogs.add("location结果疑似噪声：已切换到文本解析结果");
                 }
-
                 result.setStrategy("text-" + resolvePairingStrategy(fallbackLogs));
                 result.setColors(byText);
                 result.setOcrServiceSummary(buildOcrServiceSummary());
                 return result;
-            } catch (RuntimeException exception) {
-                lastError = exception;
-                if (!isQuotaError(exception.getMessage())) {
-                    break;
-                }
             }
+
+            if (byLocation != null && !byLocation.isEmpty()) {
+                result.setStrategy("location-" + resolvePairingStrategy(pairLogs));
+                result.setColors(byLocation);
+                result.setOcrServiceSummary(buildOcrServiceSummary());
+                return result;
+            }
+
+            result.setStrategy("text-" + resolvePairingStrategy(fallbackLogs));
+            result.setColors(byText);
+            result.setOcrServiceSummary(buildOcrServiceSummary());
+            return result;
+        } catch (RuntimeException exception) {
+            lastError = exception;
         }
 
         if (lastError != null) {
@@ -487,8 +555,8 @@ public class BeadService {
             Integer cropWidth,
             Integer cropHeight
     ) {
-        String cropped = cropImageByRect(originalImageBase64, cropX, cropY, cropWidth, cropHeight);
-        if (cropped == null || cropped.isBlank()) {
+        DecodedImage cropped = cropImageByRect(originalImageBase64, cropX, cropY, cropWidth, cropHeight);
+        if (cropped == null) {
             ColorExtractionDebugResult result = new ColorExtractionDebugResult();
             result.setStrategy("crop-failed");
             result.setColors(List.of());
@@ -500,7 +568,43 @@ public class BeadService {
             result.setRawText("");
             return result;
         }
-        return extractColorsDebugFromBaidu(cropped);
+        resetOcrServiceUsage();
+        logImagePayloadDiagnostics("extract-colors-debug", originalImageBase64, cropped);
+        return extractColorsDebugFromBaidu(normalizeImageForOcr(cropped));
+    }
+
+    public ColorExtractionDebugResult extractColorsDebugFromImageBytes(
+            byte[] imageBytes,
+            Integer cropX,
+            Integer cropY,
+            Integer cropWidth,
+            Integer cropHeight
+    ) {
+        if (imageBytes == null || imageBytes.length == 0) {
+            LOGGER.warn("extract-colors-debug: empty binary upload");
+            ColorExtractionDebugResult result = new ColorExtractionDebugResult();
+            result.setStrategy("empty-image");
+            result.setColors(List.of());
+            result.setOcrServiceSummary("未调用OCR服务");
+            return result;
+        }
+        DecodedImage source = DecodedImage.ofBytes(imageBytes);
+        DecodedImage cropped = cropImageByRect(source, cropX, cropY, cropWidth, cropHeight);
+        if (cropped == null) {
+            ColorExtractionDebugResult result = new ColorExtractionDebugResult();
+            result.setStrategy("crop-failed");
+            result.setColors(List.of());
+            result.setOcrServiceSummary("未调用OCR服务");
+            result.setPairLogs(List.of(
+                "裁切失败：已阻止回退整图识别，避免识别范围超出选区",
+                "payload诊断：" + diagnoseImagePayload(source)
+            ));
+            result.setRawText("");
+            return result;
+        }
+        resetOcrServiceUsage();
+        logImagePayloadDiagnostics("extract-colors-debug", null, cropped);
+        return extractColorsDebugFromBaidu(normalizeImageForOcr(cropped));
     }
 
     public GridAnalysisResult analyzeGridFromBaidu(
@@ -510,6 +614,20 @@ public class BeadService {
             Integer imageWidth,
             Integer imageHeight,
             List<String> candidateCodes
+    ) {
+        String base64 = stripDataUrlPrefix(imageBase64);
+        DecodedImage source = base64 == null || base64.isBlank() ? null : DecodedImage.ofBase64(base64);
+        return analyzeGridFromBaidu(source, rows, cols, imageWidth, imageHeight, candidateCodes, OcrDeadline.none());
+    }
+
+    private GridAnalysisResult analyzeGridFromBaidu(
+            DecodedImage source,
+            Integer rows,
+            Integer cols,
+            Integer imageWidth,
+            Integer imageHeight,
+            List<String> candidateCodes,
+            OcrDeadline deadline
     ) {
         resetOcrServiceUsage();
         int gridRows = rows == null ? 0 : rows;
@@ -521,39 +639,43 @@ public class BeadService {
             throw new IllegalArgumentException("网格参数无效，请检查 rows/cols/imageWidth/imageHeight");
         }
 
-        String base64 = stripDataUrlPrefix(imageBase64);
-        if (base64 == null || base64.isBlank()) {
+        if (source == null) {
             GridAnalysisResult empty = new GridAnalysisResult();
             empty.setRows(gridRows);
             empty.setCols(gridCols);
             empty.setOcrServiceSummary(buildOcrServiceSummary());
             return empty;
         }
-        base64 = normalizeImageBase64ForOcr(base64);
+        DecodedImage image = normalizeImageForOcr(source);
 
-        List<KeyPair> keyPairs = buildKeyPairs();
-        if (keyPairs.isEmpty()) {
-            throw new IllegalStateException("百度 OCR 未配置，请在 backend/application.yml 或环境变量中设置 baidu.ocr.ak / baidu.ocr.sk");
-        }
+        requireCredentialPool();
 
         RuntimeException lastError = null;
-        for (KeyPair keyPair : keyPairs) {
-            try {
-                String accessToken = fetchBaiduAccessToken(keyPair.ak(), keyPair.sk());
-                int splitCount = Math.max(resolveGridSplitCount(gridRows, gridCols), resolveImageSizeSplitCount(base64));
-                if (splitCount <= 1) {
-                    return withOcrServiceSummary(analyzeSingleImageWithVariants(accessToken, base64, gridRows, gridCols, width, height, candidateCodes));
-                }
-                return withOcrServiceSummary(analyzeGridByTiles(accessToken, base64, gridRows, gridCols, width, height, candidateCodes, splitCount));
-            } catch (RuntimeException exception) {
-                lastError = exception;
-                if (!isQuotaError(exception.getMessage())) {
-                    break;
-                }
-            }
+        try {
+            OcrSession session = ocrSession(deadline);
+            int splitCount = Math.max(resolveGridSplitCount(gridRows, gridCols), resolveImageSizeSplitCount(image));
+            GridAnalysisResult result = splitCount <= 1
+                    ? analyzeSingleImageWithVariants(session, image, gridRows, gridCols, width, height, candidateCodes)
+                    : analyzeGridByTiles(session, image, gridRows, gridCols, width, height, candidateCodes, splitCount);
+            if (deadline.isExpired()) {
+                LOGGER.warn("analyze-grid 超过请求截止时间，返回部分结果：filled={}", result.getFilledCount());
+                result.setPartial(true);
+            }
+            return withOcrServiceSummary(result);
+        } catch (RuntimeException exception) {
+            lastError = exception;
         }
 
         if (lastError != null) {
+            if (deadline.isExpired()) {
+                LOGGER.warn("analyze-grid 超过请求截止时间，尚无可用结果：{}", lastError.getMessage());
+                GridAnalysisResult empty = new GridAnalysisResult();
+                empty.setRows(gridRows);
+                empty.setCols(gridCols);
+                empty.setPartial(true);
+                empty.setOcrServiceSummary(buildOcrServiceSummary());
+                return empty;
+            }
             if (isQuotaError(lastError.getMessage())) {
                 GridAnalysisResult empty = new GridAnalysisResult();
                 empty.setRows(gridRows);
@@ -587,24 +709,135 @@ public class BeadService {
             Integer cropWidth,
             Integer cropHeight
     ) {
-        String cropped = cropImageByRect(originalImageBase64, cropX, cropY, cropWidth, cropHeight);
-        if (cropped == null || cropped.isBlank()) {
-            throw new IllegalArgumentException("裁切失败：未执行整图回退，请重新框选后重试");
-        }
-        int safeWidth = cropWidth == null ? (imageWidth == null ? 0 : imageWidth) : cropWidth;
-        int safeHeight = cropHeight == null ? (imageHeight == null ? 0 : imageHeight) : cropHeight;
         return analyzeGridFromBaidu(
-                cropped,
+                originalImageBase64,
                 rows,
                 cols,
-                safeWidth,
-                safeHeight,
+                imageWidth,
+                imageHeight,
                 candidateCodes,
                 candidateQuantities,
-                candidateColorHex
+                candidateColorHex,
+                cropX,
+                cropY,
+                cropWidth,
+                cropHeight,
+                OcrDeadline.none()
         );
     }
 
+    public GridAnalysisResult analyzeGridFromBaidu(
+            String originalImageBase64,
+            Integer rows,
+            Integer cols,
+            Integer imageWidth,
+            Integer imageHeight,
+            List<String> candidateCodes,
+            Map<String, Integer> candidateQuantities,
+            Map<String, String> candidateColorHex,
+            Integer cropX,
+            Integer cropY,
+            Integer cropWidth,
+            Integer cropHeight,
+            OcrDeadline deadline
+    ) {
+        return coalesceGridAnalysis(deadline, recognitionKey(
+                "analyze-grid",
+                originalImageBase64,
+                rows,
+                cols,
+                imageWidth,
+                imageHeight,
+                candidateCodes,
+                candidateQuantities,
+                candidateColorHex,
+                cropX,
+                cropY,
+                cropWidth,
+                cropHeight
+        ), () -> {
+            DecodedImage cropped = cropImageByRect(originalImageBase64, cropX, cropY, cropWidth, cropHeight);
+            if (cropped == null) {
+                throw new IllegalArgumentException("裁切失败：未执行整图回退，请重新框选后重试");
+            }
+            int safeWidth = cropWidth == null ? (imageWidth == null ? 0 : imageWidth) : cropWidth;
+            int safeHeight = cropHeight == null ? (imageHeight == null ? 0 : imageHeight) : cropHeight;
+            return analyzeGridFromBaidu(
+                    cropped,
+                    rows,
+                    cols,
+                    safeWidth,
+                    safeHeight,
+                    candidateCodes,
+                    candidateQuantities,
+                    candidateColorHex,
+                    deadline
+            );
+        });
+    }
+
+    public GridAnalysisResult analyzeGridFromImageBytes(
+            byte[] imageBytes,
+            Integer rows,
+            Integer cols,
+            Integer imageWidth,
+            Integer imageHeight,
+            List<String> candidateCodes,
+            Map<String, Integer> candidateQuantities,
+            Map<String, String> candidateColorHex,
+            Integer cropX,
+            Integer cropY,
+            Integer cropWidth,
+            Integer cropHeight,
+            OcrDeadline deadline
+    ) {
+        return coalesceGridAnalysis(deadline, recognitionKey(
+                "analyze-grid",
+                imageBytes,
+                rows,
+                cols,
+                imageWidth,
+                imageHeight,
+                candidateCodes,
+                candidateQuantities,
+                candidateColorHex,
+                cropX,
+                cropY,
+                cropWidth,
+                cropHeight
+        ), () -> {
+            if (imageBytes == null || imageBytes.length == 0) {
+                return analyzeGridFromBaidu((DecodedImage) null, rows, cols, imageWidth, imageHeight, candidateCodes, candidateQuantities, candidateColorHex, deadline);
+            }
+            DecodedImage source = DecodedImage.ofBytes(imageBytes);
+            DecodedImage cropped = cropImageByRect(source, cropX, cropY, cropWidth, cropHeight);
+            if (cropped == null) {
+                throw new IllegalArgumentException("裁切失败：未执行整图回退，请重新框选后重试");
+            }
+            Integer safeWidth = cropWidth == null ? imageWidth : cropWidth;
+            Integer safeHeight = cropHeight == null ? imageHeight : cropHeight;
+            if (safeWidth == null || safeHeight == null) {
+                Dimension size = cropped == source ? source.sourceSize() : new Dimension(cropped.width(), cropped.height());
+                if (size != null) {
+                    safeWidth = safeWidth == null ? size.width : safeWidth;
+                    safeHeight = safeHeight == null ? size.height : safeHeight;
+                }
+            }
+            logImagePayloadDiagnostics("analyze-grid", null, cropped);
+            return analyzeGridFromBaidu(
+                    cropped,
+                    rows,
+                    cols,
+                    safeWidth,
+                    safeHeight,
+                    candidateCodes,
+                    candidateQuantities,
+                    candidateColorHex,
+                    deadline
+            );
+        });
+    }
+
     public GridAnalysisResult analyzeGridFromBaidu(
             String imageBase64,
             Integer rows,
@@ -627,10 +860,51 @@ public class BeadService {
             Map<String, Integer> candidateQuantities,
             Map<String, String> candidateColorHex
     ) {
-        GridAnalysisResult result = analyzeGridFromBaidu(imageBase64, rows, cols, imageWidth, imageHeight, candidateCodes);
+        return analyzeGridFromBaidu(imageBase64, rows, cols, imageWidth, imageHeight, candidateCodes, candidateQuantities, candidateColorHex, OcrDeadline.none());
+    }
 
-        String base64 = stripDataUrlPrefix(imageBase64);
-        if (base64 == null || base64.isBlank()) {
+    public GridAnalysisResult analyzeGridFromBaidu(
+            String imageBase64,
+            Integer rows,
+            Integer cols,
+            Integer imageWidth,
+            Integer imageHeight,
+            List<String> candidateCodes,
+            Map<String, Integer> candidateQuantities,
+            Map<String, String> candidateColorHex,
+            OcrDeadline deadline
+    ) {
+        return coalesceGridAnalysis(deadline, recognitionKey(
+                "analyze-grid",
+                imageBase64,
+                rows,
+                cols,
+                imageWidth,
+                imageHeight,
+                candidateCodes,
+                candidateQuantities,
+                candidateColorHex
+        ), () -> {
+            String base64 = stripDataUrlPrefix(imageBase64);
+            DecodedImage source = base64 == null || base64.isBlank() ? null : DecodedImage.ofBase64(base64);
+            return analyzeGridFromBaidu(source, rows, cols, imageWidth, imageHeight, candidateCodes, candidateQuantities, candidateColorHex, deadline);
+        });
+    }
+
+    private GridAnalysisResult analyzeGridFromBaidu(
+            DecodedImage source,
+            Integer rows,
+            Integer cols,
+            Integer imageWidth,
+            Integer imageHeight,
+            List<String> candidateCodes,
+            Map<String, Integer> candidateQuantities,
+            Map<String, String> candidateColorHex,
+            OcrDeadline deadline
+    ) {
+        GridAnalysisResult result = analyzeGridFromBaidu(source, rows, cols, imageWidth, imageHeight, candidateCodes, deadline);
+
+        if (source == null) {
             return result;
         }
         if (rows == null || cols == null || rows <= 0 || cols <= 0) {
@@ -638,7 +912,7 @@ public class BeadService {
         }
 
         return fillMissingCellsByColor(
-                base64,
+                source,
                 rows,
                 cols,
                 result,
@@ -657,91 +931,136 @@ public class BeadService {
     }
 
     private GridAnalysisResult analyzeSingleImageWithVariants(
-            String accessToken,
-            String base64,
+            OcrSession session,
+            DecodedImage image,
+            int rows,
+            int cols,
+            int imageWidth,
+            int imageHeight,
+            List<String> candidateCodes
+    ) {
+        return awaitOcr(analyzeSingleImageWithVariantsAsync(session, image, rows, cols, imageWidth, imageHeight, candidateCodes));
+    }
+
+    private CompletableFuture<GridAnalysisResult> analyzeSingleImageWithVariantsAsync(
+            OcrSession session,
+            DecodedImage image,
             int rows,
             int cols,
             int imageWidth,
             int imageHeight,
             List<String> candidateCodes
     ) {
-        PreparedGridImage preparedImage = prepareImageForGridRecognition(base64, rows, cols, imageWidth, imageHeight);
-        GridAnalysisResult preparedResult = runSingleImagePipeline(
-                accessToken,
-                preparedImage.base64(),
+        PreparedGridImage preparedImage = prepareImageForGridRecognition(image, rows, cols, imageWidth, imageHeight);
+        return analyzePreparedGridImageAsync(
+                session,
+                image,
+                preparedImage,
+                fetchBaiduOcrWordsWithLocationAsync(session, preparedImage.image()),
                 rows,
                 cols,
-                preparedImage.geometry(),
+                imageWidth,
+                imageHeight,
                 candidateCodes
         );
+    }
 
-        int totalCells = rows * cols;
-        int enoughFilled = Math.max(1, (int) Math.floor(totalCells * 0.72));
-        if (preparedResult.getFilledCount() >= enoughFilled) {
-            return preparedResult;
-        }
-
-        boolean shouldTryBaseline = preparedImage.preprocessed();
-        if (!shouldTryBaseline) {
-            return preparedResult;
-        }
-
-        PreparedGridImage baselineImage = buildBaselineGridImage(base64, rows, cols, imageWidth, imageHeight);
-        GridAnalysisResult baselineResult = runSingleImagePipeline(
-                accessToken,
-                baselineImage.base64(),
+    private CompletableFuture<GridAnalysisResult> analyzePreparedGridImageAsync(
+            OcrSession session,
+            DecodedImage image,
+            PreparedGridImage preparedImage,
+            CompletableFuture<List<OcrWordBox>> preparedWords,
+            int rows,
+            int cols,
+            int imageWidth,
+            int imageHeight,
+            List<String> candidateCodes
+    ) {
+        return runSingleImagePipeline(
+                session,
+                preparedImage.image(),
+                preparedWords,
                 rows,
                 cols,
-                baselineImage.geometry(),
+                preparedImage.geometry(),
                 candidateCodes
-        );
-
-        return baselineResult.getFilledCount() > preparedResult.getFilledCount() ? baselineResult : preparedResult;
-    }
-
-    private GridAnalysisResult runSingleImagePipeline(
-            String accessToken,
-            String base64,
+        ).thenComposeAsync(preparedResult -> {
+            int totalCells = rows * cols;
+            int enoughFilled = Math.max(1, (int) Math.floor(totalCells * 0.72));
+            if (preparedResult.getFilledCount() >= enoughFilled) {
+                return CompletableFuture.completedFuture(preparedResult);
+            }
+
+            boolean shouldTryBaseline = preparedImage.preprocessed() && !session.deadline().isExpired();
+            if (!shouldTryBaseline) {
+                return CompletableFuture.completedFuture(preparedResult);
+            }
+
+            PreparedGridImage baselineImage = buildBaselineGridImage(image, rows, cols, imageWidth, imageHeight);
+            return runSingleImagePipeline(
+                    session,
+                    baselineImage.image(),
+                    fetchBaiduOcrWordsWithLocationAsync(session, baselineImage.image()),
+                    rows,
+                    cols,
+                    baselineImage.geometry(),
+                    candidateCodes
+            ).thenApply(baselineResult -> baselineResult.getFilledCount() > preparedResult.getFilledCount() ? baselineResult : preparedResult);
+        }, gridCpuPool);
+    }
+
+    private CompletableFuture<GridAnalysisResult> runSingleImagePipeline(
+            OcrSession session,
+            DecodedImage image,
+            CompletableFuture<List<OcrWordBox>> primaryWords,
             int rows,
             int cols,
             GridGeometry geometry,
             List<String> candidateCodes
     ) {
-        List<OcrWordBox> words = fetchBaiduOcrWordsWithLocation(accessToken, base64);
-        GridAnalysisResult primaryResult = mapWordsToGrid(words, rows, cols, geometry, candidateCodes);
         int totalCells = rows * cols;
         int enoughFilled = Math.max(1, (int) Math.floor(totalCells * 0.72));
-        if (primaryResult.getFilledCount() >= enoughFilled) {
-            return primaryResult;
-        }
-
-        List<String> variants = buildGridOcrVariants(base64);
-        if (variants.size() <= 1) {
-            return primaryResult;
-        }
-
-        List<OcrWordBox> mergedWords = new ArrayList<>(words);
-        for (int i = 1; i < variants.size(); i++) {
-            String variantBase64 = variants.get(i);
-            try {
-                List<OcrWordBox> variantWords = fetchBaiduOcrWordsWithLocation(accessToken, variantBase64);
-                if (variantWords != null && !variantWords.isEmpty()) {
-                    mergedWords.addAll(variantWords);
-                }
-            } catch (RuntimeException variantException) {
-                if (isQuotaError(variantException.getMessage())) {
-                    throw variantException;
+        return primaryWords.thenComposeAsync(words -> {
+            GridAnalysisResult primaryResult = mapWordsToGrid(words, rows, cols, geometry, candidateCodes);
+            if (primaryResult.getFilledCount() >= enoughFilled) {
+                return CompletableFuture.completedFuture(primaryResult);
+            }
+
+            OcrVariantSupplier variants = buildGridOcrVariants(image);
+            List<OcrWordBox> mergedWords = new ArrayList<>(words);
+            AtomicReference<GridAnalysisResult> fusedResult = new AtomicReference<>();
+            return OcrFanOut.<DecodedImage, List<OcrWordBox>>run(
+                    index -> variants.get(index + 1),
+                    ocrVariantParallelism,
+                    variant -> fetchBaiduOcrWordsWithLocationAsync(session, variant),
+                    (variant, variantWords, variantError) -> {
+                        if (variantError != null) {
+                            if (isQuotaError(variantError.getMessage())) {
+                                throw toRuntimeException(variantError);
+                            }
+                            return session.deadline().isExpired();
+                        }
+                        if (variantWords == null || variantWords.isEmpty()) {
+                            return false;
+                        }
+                        mergedWords.addAll(variantWords);
+                        GridAnalysisResult fused = mapWordsToGrid(mergedWords, rows, cols, geometry, candidateCodes);
+                        fusedResult.set(fused);
+                        return fused.getFilledCount() >= enoughFilled;
+                    }
+            ).thenApply(ignored -> {
+                GridAnalysisResult fused = fusedResult.get();
+                if (fused == null) {
+                    return primaryResult;
                 }
-            }
-        }
-
-        GridAnalysisResult fusedResult = mapWordsToGrid(mergedWords, rows, cols, geometry, candidateCodes);
-        return fusedResult.getFilledCount() >= primaryResult.getFilledCount() ? fusedResult : primaryResult;
+                return fused.getFilledCount() >= primaryResult.getFilledCount() ? fused : primaryResult;
+            });
+        }, gridCpuPool);
     }
 
     private GridAnalysisResult analyzeGridByTiles(
-            String accessToken,
-            String base64,
+            OcrSession session,
+            DecodedImage image,
             int rows,
             int cols,
             int imageWidth,
@@ -749,21 +1068,22 @@ public class BeadService {
             List<String> candidateCodes,
             int splitCount
     ) {
-        BufferedImage sourceImage = decodeBase64Image(base64);
+        BufferedImage sourceImage = image.rgb();
         if (sourceImage == null) {
-            return analyzeSingleImageWithVariants(accessToken, base64, rows, cols, imageWidth, imageHeight, candidateCodes);
+            return analyzeSingleImageWithVariants(session, image, rows, cols, imageWidth, imageHeight, candidateCodes);
         }
 
         int sourceWidth = sourceImage.getWidth();
         int sourceHeight = sourceImage.getHeight();
         if (sourceWidth <= 0 || sourceHeight <= 0) {
-            return analyzeSingleImageWithVariants(accessToken, base64, rows, cols, imageWidth, imageHeight, candidateCodes);
+            return analyzeSingleImageWithVariants(session, image, rows, cols, imageWidth, imageHeight, candidateCodes);
         }
 
-        Map<String, Map<String, CodeHit>> mergedVotes = new HashMap<>();
-        int mergedOcrCount = 0;
+        GridVotes mergedVotes = new GridVotes(rows, cols);
+        AtomicInteger mergedOcrCount = new AtomicInteger();
         int overlapRows = splitCount > 1 ? 1 : 0;
         int overlapCols = splitCount > 1 ? 1 : 0;
+        List<GridTile> tiles = new ArrayList<>();
 
         for (int tileRow = 0; tileRow < splitCount; tileRow++) {
             int rowStart = tileRow * rows / splitCount;
@@ -799,94 +1119,90 @@ public class BeadService {
                     continue;
                 }
 
-                BufferedImage tileImage = new BufferedImage(tileWidth, tileHeight, BufferedImage.TYPE_INT_RGB);
-                Graphics2D graphics = tileImage.createGraphics();
-                graphics.drawImage(sourceImage, 0, 0, tileWidth, tileHeight, sx, sy, ex, ey, null);
-                graphics.dispose();
-
-                String tileBase64 = encodeImageToBase64Png(tileImage);
-                if (tileBase64 == null || tileBase64.isBlank()) {
-                    continue;
-                }
-
-                int tileRows = extRowEnd - extRowStart;
-                int tileCols = extColEnd - extColStart;
-                GridAnalysisResult tileResult = analyzeSingleImageWithVariants(
-                        accessToken,
-                        tileBase64,
-                        tileRows,
-                        tileCols,
-                        tileWidth,
-                        tileHeight,
-                        candidateCodes
-                );
+                DecodedImage tile = image.region(sx, sy, tileWidth, tileHeight, this::encodeImageToBase64Png);
+                tiles.add(new GridTile(tiles.size(), tile, extRowStart, extColStart, extRowEnd - extRowStart, extColEnd - extColStart, tileWidth, tileHeight));
+            }
+        }
 
-                mergedOcrCount += tileResult.getOcrCount();
-                if (tileResult.getCells() == null) {
-                    continue;
-                }
+        List<CompletableFuture<PreparedGridImage>> preparedTiles = new ArrayList<>();
+        for (GridTile tile : tiles) {
+            preparedTiles.add(CompletableFuture.supplyAsync(
+                    () -> prepareImageForGridRecognition(tile.image(), tile.rows(), tile.cols(), tile.width(), tile.height()),
+                    gridCpuPool
+            ));
+        }
 
-                for (GridAnalysisCell cell : tileResult.getCells()) {
-                    int globalRow = extRowStart + cell.getRow();
-                    int globalCol = extColStart + cell.getCol();
-                    if (globalRow < 0 || globalRow >= rows || globalCol < 0 || globalCol >= cols) {
-                        continue;
-                    }
-                    String key = globalRow + "," + globalCol;
-                    String code = normalizeColorCode(cell.getCode());
-                    if (code.isBlank()) {
-                        continue;
-                    }
-                    Map<String, CodeHit> codeHits = mergedVotes.computeIfAbsent(key, ignored -> new HashMap<>());
-                    CodeHit previous = codeHits.get(code);
-                    if (previous == null) {
-                        codeHits.put(code, new CodeHit(1, 0.0));
-                    } else {
-                        codeHits.put(code, new CodeHit(previous.count() + 1, 0.0));
-                    }
-                }
-            }
+        int batchSize = ocrMosaicEnabled ? Math.max(1, ocrMosaicMaxTiles) : 1;
+        List<CompletableFuture<List<Supplier<CompletableFuture<List<OcrWordBox>>>>>> batchWords = new ArrayList<>();
+        for (int start = 0; start < tiles.size(); start += batchSize) {
+            List<CompletableFuture<PreparedGridImage>> batch = preparedTiles.subList(start, Math.min(tiles.size(), start + batchSize));
+            batchWords.add(CompletableFuture.allOf(batch.toArray(CompletableFuture[]::new))
+                    .thenApply(ignored -> locateWordsByMosaic(session, batch.stream().map(prepared -> prepared.join().image()).toList())));
         }
 
-        List<GridAnalysisCell> cells = new ArrayList<>();
-        for (Map.Entry<String, Map<String, CodeHit>> entry : mergedVotes.entrySet()) {
-            Map<String, CodeHit> codeHits = entry.getValue();
-            if (codeHits == null || codeHits.isEmpty()) {
-                continue;
-            }
-            String bestCode = codeHits.entrySet().stream()
-                    .sorted((left, right) -> {
-                        int countCompare = Integer.compare(right.getValue().count(), left.getValue().count());
-                        if (countCompare != 0) {
-                            return countCompare;
+        try {
+            awaitOcr(OcrFanOut.<GridTile, GridAnalysisResult>run(
+                    tiles,
+                    baiduOcrClient.maxInFlight(),
+                    tile -> preparedTiles.get(tile.index()).thenCompose(prepared -> batchWords.get(tile.index() / batchSize)
+                            .thenCompose(words -> analyzePreparedGridImageAsync(
+                                    session,
+                                    tile.image(),
+                                    prepared,
+                                    words.get(tile.index() % batchSize).get(),
+                                    tile.rows(),
+                                    tile.cols(),
+                                    tile.width(),
+                                    tile.height(),
+                                    candidateCodes
+                            ))
+                            .thenApply(tileResult -> {
+                                mergeTileVotes(mergedVotes, tile, tileResult);
+                                mergedOcrCount.addAndGet(tileResult.getOcrCount());
+                                return tileResult;
+                            })),
+                    (tile, tileResult, tileError) -> {
+                        if (tileError != null) {
+                            if (session.deadline().isExpired()) {
+                                return true;
+                            }
+                            throw toRuntimeException(tileError);
                         }
-                        return compareColorCodes(left.getKey(), right.getKey());
-                    })
-                    .map(Map.Entry::getKey)
-                    .findFirst()
-                    .orElse(null);
-            if (bestCode == null || bestCode.isBlank()) {
-                continue;
+                        return session.deadline().isExpired();
+                    }
+            ));
+        } finally {
+            for (CompletableFuture<PreparedGridImage> prepared : preparedTiles) {
+                prepared.cancel(false);
             }
-
-            String[] rc = entry.getKey().split(",");
-            int r = Integer.parseInt(rc[0]);
-            int c = Integer.parseInt(rc[1]);
-            cells.add(new GridAnalysisCell(r, c, bestCode));
         }
-        cells.sort(Comparator.comparingInt(GridAnalysisCell::getRow).thenComparingInt(GridAnalysisCell::getCol));
+
+        List<GridAnalysisCell> cells = mergedVotes.winners(palette::compare);
 
         GridAnalysisResult result = new GridAnalysisResult();
         result.setRows(rows);
         result.setCols(cols);
-        result.setOcrCount(mergedOcrCount);
+        result.setOcrCount(mergedOcrCount.get());
         result.setFilledCount(cells.size());
         result.setCells(cells);
         return result;
     }
 
+    private void mergeTileVotes(GridVotes votes, GridTile tile, GridAnalysisResult tileResult) {
+        if (tileResult.getCells() == null) {
+            return;
+        }
+        for (GridAnalysisCell cell : tileResult.getCells()) {
+            String code = palette.normalize(cell.getCode());
+            if (code.isBlank()) {
+                continue;
+            }
+            votes.vote(tile.rowOffset() + cell.getRow(), tile.colOffset() + cell.getCol(), code, 0.0);
+        }
+    }
+
     private GridAnalysisResult fillMissingCellsByColor(
-            String base64,
+            DecodedImage image,
             int rows,
             int cols,
             GridAnalysisResult current,
@@ -903,15 +1219,13 @@ public class BeadService {
         if (candidateQuantities == null || candidateQuantities.isEmpty()) {
             return current;
         }
-
-        Map<String, LabColor> candidateLab = buildCandidateLabMap(candidateCodes, candidateColorHex);
-        if (candidateLab.isEmpty()) {
+        if (!hasCandidateColor(candidateCodes, candidateColorHex)) {
             return current;
         }
 
         Map<String, Integer> remaining = new LinkedHashMap<>();
         for (String rawCode : candidateCodes) {
-            String code = normalizeColorCode(rawCode);
+            String code = palette.normalize(rawCode);
             if (code.isBlank()) {
                 continue;
             }
@@ -925,7 +1239,7 @@ public class BeadService {
         }
 
         List<GridAnalysisCell> currentCells = current.getCells() == null ? new ArrayList<>() : new ArrayList<>(current.getCells());
-        Set<String> occupied = new HashSet<>();
+        boolean[] occupied = new boolean[rows * cols];
         for (GridAnalysisCell cell : currentCells) {
             if (cell == null) {
                 continue;
@@ -935,9 +1249,9 @@ public class BeadService {
             if (row < 0 || row >= rows || col < 0 || col >= cols) {
                 continue;
             }
-            String code = normalizeColorCode(cell.getCode());
+            String code = palette.normalize(cell.getCode());
             if (!code.isBlank()) {
-                occupied.add(row + "," + col);
+                occupied[row * cols + col] = true;
                 if (remaining.containsKey(code)) {
                     remaining.put(code, Math.max(0, remaining.get(code) - 1));
                 }
@@ -950,59 +1264,38 @@ public class BeadService {
             return current;
         }
 
-        BufferedImage source = decodeBase64Image(base64);
+        BufferedImage source = image.rgb();
         if (source == null || source.getWidth() <= 0 || source.getHeight() <= 0) {
             return current;
         }
 
-        int width = source.getWidth();
-        int height = source.getHeight();
+        CandidateMatcher candidates = candidateMatcher(remaining, candidateColorHex);
+        if (candidates == null) {
+            return current;
+        }
+
+        CellColorSampler sampler = CellColorSampler.build(ImageKernels.rgbPixels(source), rows, cols);
         double maxDistance = 32.0;
 
         List<MissingCellScore> scores = new ArrayList<>();
         for (int row = 0; row < rows; row++) {
             for (int col = 0; col < cols; col++) {
-                String key = row + "," + col;
-                if (occupied.contains(key)) {
+                if (occupied[row * cols + col]) {
                     continue;
                 }
 
-                CellColor cellColor = sampleCellColor(source, row, col, rows, cols, width, height);
-                if (cellColor == null) {
+                int rgb = sampler.meanRgb(row, col);
+                if (rgb == CellColorSampler.NO_SAMPLE) {
                     continue;
                 }
 
-                String bestCode = null;
-                String secondCode = null;
-                double bestDistance = Double.MAX_VALUE;
-                double secondDistance = Double.MAX_VALUE;
-
-                for (Map.Entry<String, Integer> candidate : remaining.entrySet()) {
-                    if (candidate.getValue() == null || candidate.getValue() <= 0) {
-                        continue;
-                    }
-                    LabColor lab = candidateLab.get(candidate.getKey());
-                    if (lab == null) {
-                        continue;
-                    }
-                    double distance = colorDistance(cellColor.lab(), lab);
-                    if (distance < bestDistance) {
-                        secondDistance = bestDistance;
-                        secondCode = bestCode;
-                        bestDistance = distance;
-                        bestCode = candidate.getKey();
-                    } else if (distance < secondDistance) {
-                        secondDistance = distance;
-                        secondCode = candidate.getKey();
-                    }
-                }
-
-                if (bestCode == null || bestDistance > maxDistance) {
+                PaletteMatcher.Match match = candidates.matcher().match(rgb);
+                if (match.best() < 0 || match.bestDistance() > maxDistance) {
                     continue;
                 }
 
-                double confidenceGap = secondCode == null ? 100.0 : Math.max(0.0, secondDistance - bestDistance);
-                scores.add(new MissingCellScore(row, col, bestCode, bestDistance, confidenceGap));
+                double confidenceGap = match.second() < 0 ? 100.0 : Math.max(0.0, match.secondDistance() - match.bestDistance());
+                scores.add(new MissingCellScore(row, col, candidates.codes().get(match.best()), match.bestDistance(), confidenceGap));
             }
         }
 
@@ -1037,13 +1330,13 @@ public class BeadService {
             if (remain <= 0) {
                 continue;
             }
-            String key = score.row() + "," + score.col();
-            if (occupied.contains(key)) {
+            int cell = score.row() * cols + score.col();
+            if (occupied[cell]) {
                 continue;
             }
 
             currentCells.add(new GridAnalysisCell(score.row(), score.col(), code));
-            occupied.add(key);
+            occupied[cell] = true;
             remaining.put(code, remain - 1);
             filledByColor++;
         }
@@ -1054,98 +1347,70 @@ public class BeadService {
         return current;
     }
 
-    private Map<String, LabColor> buildCandidateLabMap(List<String> candidateCodes, Map<String, String> candidateColorHex) {
-        Map<String, LabColor> result = new LinkedHashMap<>();
-        if (candidateCodes == null || candidateCodes.isEmpty()) {
-            return result;
+    private boolean hasCandidateColor(List<String> candidateCodes, Map<String, String> candidateColorHex) {
+        if (candidateColorHex == null || candidateColorHex.isEmpty()) {
+            return false;
         }
-
         for (String rawCode : candidateCodes) {
-            String code = normalizeColorCode(rawCode);
+            String code = palette.normalize(rawCode);
             if (code.isBlank()) {
                 continue;
             }
-            String hex = candidateColorHex == null ? null : candidateColorHex.get(code);
-            if (hex == null || hex.isBlank()) {
-                continue;
+            String hex = candidateColorHex.get(code);
+            if (hex != null && !hex.isBlank() && parseHexColor(hex) != null) {
+                return true;
             }
+        }
+        return false;
+    }
 
-            RgbColor rgb = parseHexColor(hex);
-            if (rgb == null) {
+    private CandidateMatcher candidateMatcher(Map<String, Integer> remaining, Map<String, String> candidateColorHex) {
+        List<String> codes = new ArrayList<>();
+        List<String> hexes = new ArrayList<>();
+        StringBuilder key = new StringBuilder();
+        for (Map.Entry<String, Integer> entry : remaining.entrySet()) {
+            if (entry.getValue() == null || entry.getValue() <= 0) {
                 continue;
             }
-            result.put(code, rgbToLab(rgb.red(), rgb.green(), rgb.blue()));
+            String code = entry.getKey();
+            String hex = candidateColorHex.get(code);
+            if (hex == null || hex.isBlank()) {
+                continue;
+            }
+            codes.add(code);
+            hexes.add(hex);
+            key.append(code).append('=').append(hex.trim()).append(';');
         }
 
-        return result;
-    }
-
-    private CellColor sampleCellColor(
-            BufferedImage image,
-            int row,
-            int col,
-            int rows,
-            int cols,
-            int width,
-            int height
-    ) {
-        int xStart = (int) Math.floor(col * (double) width / cols);
-        int xEnd = (int) Math.ceil((col + 1) * (double) width / cols);
-        int yStart = (int) Math.floor(row * (double) height / rows);
-        int yEnd = (int) Math.ceil((row + 1) * (double) height / rows);
-
-        int xMargin = Math.max(1, (xEnd - xStart) / 5);
-        int yMargin = Math.max(1, (yEnd - yStart) / 5);
-        int sx = Math.max(0, xStart + xMargin);
-        int ex = Math.min(width, xEnd - xMargin);
-        int sy = Math.max(0, yStart + yMargin);
-        int ey = Math.min(height, yEnd - yMargin);
-
-        if (ex <= sx || ey <= sy) {
-            sx = Math.max(0, xStart);
-            ex = Math.min(width, xEnd);
-            sy = Math.max(0, yStart);
-            ey = Math.min(height, yEnd);
-            if (ex <= sx || ey <= sy) {
-                return null;
+        synchronized (paletteMatchers) {
+            CandidateMatcher cached = paletteMatchers.get(key.toString());
+            if (cached != null) {
+                return cached;
             }
         }
 
-        long sumR = 0;
-        long sumG = 0;
-        long sumB = 0;
-        int count = 0;
-
-        for (int y = sy; y < ey; y++) {
-            for (int x = sx; x < ex; x++) {
-                int rgb = image.getRGB(x, y);
-                int red = (rgb >> 16) & 0xFF;
-                int green = (rgb >> 8) & 0xFF;
-                int blue = rgb & 0xFF;
-                int max = Math.max(red, Math.max(green, blue));
-                int min = Math.min(red, Math.min(green, blue));
-                int lum = (red * 299 + green * 587 + blue * 114) / 1000;
-
-                if (lum < 28 && (max - min) < 40) {
-                    continue;
-                }
-
-                sumR += red;
-                sumG += green;
-                sumB += blue;
-                count++;
+        List<String> matchedCodes = new ArrayList<>();
+        List<Integer> rgbs = new ArrayList<>();
+        for (int i = 0; i < codes.size(); i++) {
+            RgbColor rgb = parseHexColor(hexes.get(i));
+            if (rgb == null) {
+                continue;
             }
+            matchedCodes.add(codes.get(i));
+            rgbs.add((rgb.red() << 16) | (rgb.green() << 8) | rgb.blue());
         }
-
-        if (count <= 0) {
+        if (matchedCodes.isEmpty()) {
             return null;
         }
 
-        int avgR = (int) Math.round(sumR / (double) count);
-        int avgG = (int) Math.round(sumG / (double) count);
-        int avgB = (int) Math.round(sumB / (double) count);
-        LabColor lab = rgbToLab(avgR, avgG, avgB);
-        return new CellColor(avgR, avgG, avgB, lab);
+        CandidateMatcher built = new CandidateMatcher(
+                List.copyOf(matchedCodes),
+                PaletteMatcher.of(rgbs.stream().mapToInt(Integer::intValue).toArray())
+        );
+        synchronized (paletteMatchers) {
+            paletteMatchers.put(key.toString(), built);
+        }
+        return built;
     }
 
     private RgbColor parseHexColor(String hex) {
@@ -1171,44 +1436,6 @@ public class BeadService {
         return new RgbColor(red, green, blue);
     }
 
-    private double colorDistance(LabColor left, LabColor right) {
-        double dL = left.l() - right.l();
-        double dA = left.a() - right.a();
-        double dB = left.b() - right.b();
-        return Math.sqrt(dL * dL + dA * dA + dB * dB);
-    }
-
-    private LabColor rgbToLab(int red, int green, int blue) {
-        double r = pivotRgb(red / 255.0);
-        double g = pivotRgb(green / 255.0);
-        double b = pivotRgb(blue / 255.0);
-
-        double x = r * 0.4124 + g * 0.3576 + b * 0.1805;
-        double y = r * 0.2126 + g * 0.7152 + b * 0.0722;
-        double z = r * 0.0193 + g * 0.1192 + b * 0.9505;
-
-        double xr = x / 0.95047;
-        double yr = y / 1.00000;
-        double zr = z / 1.08883;
-
-        double fx = pivotXyz(xr);
-        double fy = pivotXyz(yr);
-        double fz = pivotXyz(zr);
-
-        double l = Math.max(0.0, 116.0 * fy - 16.0);
-        double a = 500.0 * (fx - fy);
-        double bb = 200.0 * (fy - fz);
-        return new LabColor(l, a, bb);
-    }
-
-    private double pivotRgb(double value) {
-        return value <= 0.04045 ? value / 12.92 : Math.pow((value + 0.055) / 1.055, 2.4);
-    }
-
-    private double pivotXyz(double value) {
-        return value > 0.008856 ? Math.cbrt(value) : (7.787 * value) + (16.0 / 116.0);
-    }
-
     public List<String> allTags() {
         Set<String> tags = new LinkedHashSet<>();
         for (TagOption option : tagOptionRepository.findAll()) {
@@ -1270,29 +1497,79 @@ public class BeadService {
         return tag;
     }
 
-    public Map<String, String> getOcrSettings() {
+    public Map<String, Object> getOcrMetrics() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("credentials", credentialPool.snapshot());
+        result.put("rateLimits", baiduOcrClient.rateLimitSnapshot());
+        result.put("latencies", baiduOcrClient.latencySnapshot());
+        result.put("responseCache", baiduOcrClient.responseCacheSnapshot());
+        return result;
+    }
+
+    public Map<String, Object> getOcrSettings() {
         String ak = resolveSettingValue("baidu.ocr.ak", baiduApiKey);
         String sk = resolveSettingValue("baidu.ocr.sk", baiduSecretKey);
         String ak2 = resolveSettingValue("baidu.ocr.ak2", baiduApiKey2);
         String sk2 = resolveSettingValue("baidu.ocr.sk2", baiduSecretKey2);
-        Map<String, String> result = new LinkedHashMap<>();
+        Map<String, Object> result = new LinkedHashMap<>();
         result.put("ak", ak == null ? "" : ak);
         result.put("sk", sk == null ? "" : sk);
         result.put("ak2", ak2 == null ? "" : ak2);
         result.put("sk2", sk2 == null ? "" : sk2);
+        List<Map<String, Object>> pairs = new ArrayList<>();
+        for (KeyPair keyPair : buildKeyPairs()) {
+            Map<String, Object> pair = new LinkedHashMap<>();
+            pair.put("ak", keyPair.ak());
+            pair.put("sk", keyPair.sk());
+            pair.put("weight", keyPair.weight());
+            pairs.add(pair);
+        }
+        result.put("pairs", pairs);
         return result;
     }
 
-    public Map<String, String> saveOcrSettings(Map<String, Object> payload) {
-        String ak = normalizeOptionalText(payload == null ? null : String.valueOf(payload.get("ak")));
-        String sk = normalizeOptionalText(payload == null ? null : String.valueOf(payload.get("sk")));
-        String ak2 = normalizeOptionalText(payload == null ? null : String.valueOf(payload.get("ak2")));
-        String sk2 = normalizeOptionalText(payload == null ? null : String.valueOf(payload.get("sk2")));
+    public Map<String, Object> saveOcrSettings(Map<String, Object> payload) {
+        List<KeyPair> pairs;
+        if (payload != null && payload.get("pairs") instanceof List<?> rawPairs) {
+            pairs = new ArrayList<>();
+            for (Object rawPair : rawPairs) {
+                if (!(rawPair instanceof Map<?, ?> pairMap)) {
+                    throw new IllegalArgumentException("pairs 中每一项必须包含 ak / sk");
+                }
+                String ak = normalizeOptionalText(pairMap.get("ak") == null ? null : String.valueOf(pairMap.get("ak")));
+                String sk = normalizeOptionalText(pairMap.get("sk") == null ? null : String.valueOf(pairMap.get("sk")));
+                if (ak == null || sk == null) {
+                    continue;
+                }
+                pairs.add(new KeyPair(ak, sk, parseKeyPairWeight(pairMap.get("weight"))));
+            }
+        } else {
+            String ak = normalizeOptionalText(payload == null ? null : String.valueOf(payload.get("ak")));
+            String sk = normalizeOptionalText(payload == null ? null : String.valueOf(payload.get("sk")));
+            String ak2 = normalizeOptionalText(payload == null ? null : String.valueOf(payload.get("ak2")));
+            String sk2 = normalizeOptionalText(payload == null ? null : String.valueOf(payload.get("sk2")));
+
+            List<KeyPair> stored = readStoredKeyPairs();
+            pairs = new ArrayList<>();
+            if (ak != null && sk != null) {
+                pairs.add(new KeyPair(ak, sk, stored.size() > 0 ? stored.get(0).weight() : 1));
+            }
+            if (ak2 != null && sk2 != null) {
+                pairs.add(new KeyPair(ak2, sk2, stored.size() > 1 ? stored.get(1).weight() : 1));
+            }
+            if (stored.size() > 2) {
+                pairs.addAll(stored.subList(2, stored.size()));
+            }
+        }
 
-        saveSettingValue("baidu.ocr.ak", ak);
-        saveSettingValue("baidu.ocr.sk", sk);
-        saveSettingValue("baidu.ocr.ak2", ak2);
-        saveSettingValue("baidu.ocr.sk2", sk2);
+        KeyPair first = pairs.size() > 0 ? pairs.get(0) : null;
+        KeyPair second = pairs.size() > 1 ? pairs.get(1) : null;
+        saveSettingValue("baidu.ocr.ak", first == null ? null : first.ak());
+        saveSettingValue("baidu.ocr.sk", first == null ? null : first.sk());
+        saveSettingValue("baidu.ocr.ak2", second == null ? null : second.ak());
+        saveSettingValue("baidu.ocr.sk2", second == null ? null : second.sk());
+        saveKeyPairs(pairs);
+        configureCredentialPool(buildKeyPairs());
 
         return getOcrSettings();
     }
@@ -1381,6 +1658,11 @@ public class BeadService {
     }
 
     private List<KeyPair> buildKeyPairs() {
+        List<KeyPair> stored = readStoredKeyPairs();
+        if (!stored.isEmpty()) {
+            return stored;
+        }
+
         List<KeyPair> keyPairs = new ArrayList<>();
         String ak = resolveSettingValue("baidu.ocr.ak", baiduApiKey);
         String sk = resolveSettingValue("baidu.ocr.sk", baiduSecretKey);
@@ -1388,14 +1670,98 @@ public class BeadService {
         String sk2 = resolveSettingValue("baidu.ocr.sk2", baiduSecretKey2);
 
         if (isNonBlank(ak) && isNonBlank(sk)) {
-            keyPairs.add(new KeyPair(ak.trim(), sk.trim()));
+            keyPairs.add(new KeyPair(ak.trim(), sk.trim(), 1));
         }
         if (isNonBlank(ak2) && isNonBlank(sk2)) {
-            keyPairs.add(new KeyPair(ak2.trim(), sk2.trim()));
+            keyPairs.add(new KeyPair(ak2.trim(), sk2.trim(), 1));
         }
         return keyPairs;
     }
 
+    private List<KeyPair> readStoredKeyPairs() {
+        String json = resolveSettingValue("baidu.ocr.pairs", null);
+        if (json == null) {
+            return List.of();
+        }
+        List<KeyPair> keyPairs = new ArrayList<>();
+        try {
+            for (JsonNode node : objectMapper.readTree(json)) {
+                String ak = normalizeOptionalText(node.path("ak").asText(null));
+                String sk = normalizeOptionalText(node.path("sk").asText(null));
+                if (ak != null && sk != null) {
+                    keyPairs.add(new KeyPair(ak, sk, Math.max(1, node.path("weight").asInt(1))));
+                }
+            }
+        } catch (Exception exception) {
+            LOGGER.warn("baidu.ocr.pairs 配置解析失败，改用 ak/sk 配置。reason={}", exception.getMessage());
+            return List.of();
+        }
+        return keyPairs;
+    }
+
+    private void saveKeyPairs(List<KeyPair> keyPairs) {
+        Map<String, KeyPair> unique = new LinkedHashMap<>();
+        for (KeyPair keyPair : keyPairs) {
+            unique.putIfAbsent(keyPair.ak() + "\n" + keyPair.sk(), keyPair);
+        }
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (KeyPair keyPair : unique.values()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("ak", keyPair.ak());
+            item.put("sk", keyPair.sk());
+            item.put("weight", keyPair.weight());
+            items.add(item);
+        }
+        try {
+            saveSettingValue("baidu.ocr.pairs", items.isEmpty() ? null : objectMapper.writeValueAsString(items));
+        } catch (Exception exception) {
+            throw new IllegalStateException("保存 OCR 凭据失败: " + exception.getMessage(), exception);
+        }
+    }
+
+    private int parseKeyPairWeight(Object raw) {
+        if (raw == null || String.valueOf(raw).isBlank()) {
+            return 1;
+        }
+        try {
+            int weight = raw instanceof Number number ? number.intValue() : Integer.parseInt(String.valueOf(raw).trim());
+            if (weight <= 0) {
+                throw new IllegalArgumentException("凭据权重必须大于 0");
+            }
+            return weight;
+        } catch (NumberFormatException exception) {
+            throw new IllegalArgumentException("凭据权重必须为整数: " + raw);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initCredentialPool() {
+        configureCredentialPool(buildKeyPairs());
+    }
+
+    private void requireCredentialPool() {
+        if (!credentialPoolConfigured) {
+            synchronized (credentialPool) {
+                if (!credentialPoolConfigured) {
+                    configureCredentialPool(buildKeyPairs());
+                }
+            }
+        }
+        if (credentialPool.isEmpty()) {
+            throw new IllegalStateException("百度 OCR 未配置，请在 backend/application.yml 或环境变量中设置 baidu.ocr.ak / baidu.ocr.sk");
+        }
+    }
+
+    private void configureCredentialPool(List<KeyPair> keyPairs) {
+        Map<String, OcrCredentialPool.Credential> credentials = new LinkedHashMap<>();
+        for (KeyPair keyPair : keyPairs) {
+            OcrCredentialPool.Credential credential = OcrCredentialPool.credential(keyPair.ak(), keyPair.sk(), keyPair.weight());
+            credentials.putIfAbsent(credential.id(), credential);
+        }
+        credentialPool.configure(new ArrayList<>(credentials.values()));
+        credentialPoolConfigured = true;
+    }
+
     private boolean isNonBlank(String value) {
         return value != null && !value.isBlank();
     }
@@ -1465,86 +1831,30 @@ public class BeadService {
         return cleaned;
     }
 
-    private String fetchBaiduAccessToken(String ak, String sk) {
-        try {
-            String url = "https://aip.baidubce.com/oauth/2.0/token"
-                    + "?grant_type=client_credentials"
-                    + "&client_id=" + URLEncoder.encode(ak, StandardCharsets.UTF_8)
-                    + "&client_secret=" + URLEncoder.encode(sk, StandardCharsets.UTF_8);
-
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .header("Content-Type", "application/x-www-form-urlencoded")
-                    .POST(HttpRequest.BodyPublishers.noBody())
-                    .build();
-
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() < 200 || response.statusCode() >= 300) {
-                throw new IllegalStateException("获取百度 OCR Token 失败，HTTP " + response.statusCode());
-            }
-
-            JsonNode root = objectMapper.readTree(response.body());
-            if (root.hasNonNull("error")) {
-                String message = root.path("error_description").asText(root.path("error").asText("unknown"));
-                throw new IllegalStateException("百度 Token 错误: " + message);
-            }
-
-            String accessToken = root.path("access_token").asText();
-            if (accessToken == null || accessToken.isBlank()) {
-                throw new IllegalStateException("百度 Token 响应中缺少 access_token");
-            }
-            return accessToken;
-        } catch (Exception exception) {
-            throw new IllegalStateException("调用百度 Token 接口失败: " + exception.getMessage(), exception);
-        }
+    private String fetchBaiduOcrRawText(OcrSession session, DecodedImage image) {
+        return awaitOcr(fetchBaiduOcrRawTextAsync(session, image));
     }
 
-    private String fetchBaiduOcrRawText(String accessToken, String base64) {
-        RuntimeException firstError = null;
-        try {
-            return fetchBaiduOcrRawTextByEndpoint(accessToken, base64, "accurate_basic", "通用文字识别（高精度版）");
-        } catch (RuntimeException exception) {
-            firstError = exception;
-            LOGGER.warn("OCR raw fallback: accurate_basic failed, try general_basic. reason={}", exception.getMessage());
-        }
-
-        try {
-            return fetchBaiduOcrRawTextByEndpoint(accessToken, base64, "general_basic", "通用文字识别（标准版）");
-        } catch (RuntimeException exception) {
-            LOGGER.warn("OCR raw fallback: general_basic failed, try webimage. reason={}", exception.getMessage());
-        }
-
-        try {
-            return fetchBaiduOcrRawTextByEndpoint(accessToken, base64, "webimage", "网络图片文字识别");
-        } catch (RuntimeException exception) {
-            if (firstError != null) {
-                throw firstError;
-            }
-            throw exception;
-        }
+    private List<OcrWordBox> fetchBaiduOcrWordsWithLocation(OcrSession session, DecodedImage image) {
+        return awaitOcr(fetchBaiduOcrWordsWithLocationAsync(session, image));
     }
 
-    private List<OcrWordBox> fetchBaiduOcrWordsWithLocation(String accessToken, String base64) {
-        RuntimeException accurateError = null;
-        try {
-            return fetchBaiduOcrWordsWithLocationByEndpoint(accessToken, base64, "accurate", "通用文字识别（高精度含位置版）");
-        } catch (RuntimeException exception) {
-            accurateError = exception;
-            LOGGER.warn("OCR location fallback: accurate failed, try general. reason={}", exception.getMessage());
-        }
+    private CompletableFuture<String> fetchBaiduOcrRawTextAsync(OcrSession session, DecodedImage image) {
+        return callBaiduOcrHedged(session, image, false, "OCR raw", List.of(
+                new OcrEndpoint("accurate_basic", "通用文字识别（高精度版）"),
+                new OcrEndpoint("general_basic", "通用文字识别（标准版）"),
+                new OcrEndpoint("webimage", "网络图片文字识别")
+        )).thenApply(this::parseOcrRawText);
+    }
 
-        try {
-            return fetchBaiduOcrWordsWithLocationByEndpoint(accessToken, base64, "general", "通用文字识别（标准含位置版）");
-        } catch (RuntimeException exception) {
-            if (accurateError != null) {
-                throw accurateError;
-            }
-            throw exception;
-        }
+    private CompletableFuture<List<OcrWordBox>> fetchBaiduOcrWordsWithLocationAsync(OcrSession session, DecodedImage image) {
+        return callBaiduOcrHedged(session, image, true, "OCR location", List.of(
+                new OcrEndpoint("accurate", "通用文字识别（高精度含位置版）"),
+                new OcrEndpoint("general", "通用文字识别（标准含位置版）")
+        )).thenApply(this::parseOcrWordBoxes);
     }
 
-    private String fetchBaiduOcrRawTextByEndpoint(String accessToken, String base64, String endpoint, String serviceName) {
-        JsonNode root = callBaiduOcr(accessToken, base64, endpoint, true, false, serviceName);
+    private String parseOcrRawText(JsonNode root) {
         JsonNode wordsResult = root.path("words_result");
         if (!wordsResult.isArray()) {
             return "";
@@ -1560,8 +1870,7 @@ public class BeadService {
         return String.join("\n", lines);
     }
 
-    private List<OcrWordBox> fetchBaiduOcrWordsWithLocationByEndpoint(String accessToken, String base64, String endpoint, String serviceName) {
-        JsonNode root = callBaiduOcr(accessToken, base64, endpoint, true, true, serviceName);
+    private List<OcrWordBox> parseOcrWordBoxes(JsonNode root) {
         JsonNode wordsResult = root.path("words_result");
         if (!wordsResult.isArray()) {
             return List.of();
@@ -1583,75 +1892,227 @@ public class BeadService {
         return result;
     }
 
-    private JsonNode callBaiduOcr(
-            String accessToken,
-            String base64,
+    private CompletableFuture<JsonNode> callBaiduOcrHedged(
+            OcrSession session,
+            DecodedImage image,
+            boolean needLocation,
+            String label,
+            List<OcrEndpoint> endpoints
+    ) {
+        List<OcrHedge.Leg<JsonNode>> legs = new ArrayList<>();
+        for (OcrEndpoint endpoint : endpoints) {
+            legs.add(new OcrHedge.Leg<>(
+                    endpoint.endpoint(),
+                    dispatched -> callBaiduOcr(session, image, endpoint.endpoint(), true, needLocation, endpoint.serviceName(), dispatched),
+                    baiduOcrClient.hedgeDelayMillis(endpoint.endpoint())
+            ));
+        }
+        return OcrHedge.race(label, legs);
+    }
+
+    private List<Supplier<CompletableFuture<List<OcrWordBox>>>> locateWordsByMosaic(OcrSession session, List<DecodedImage> images) {
+        List<Dimension> sizes = new ArrayList<>();
+        for (DecodedImage image : images) {
+            sizes.add(image != null && image.isReadable() ? new Dimension(image.width(), image.height()) : null);
+        }
+        int maxTiles = ocrMosaicEnabled ? ocrMosaicMaxTiles : 1;
+        List<Supplier<CompletableFuture<List<OcrWordBox>>>> result = new ArrayList<>(Collections.nCopies(images.size(), null));
+        for (OcrMosaic mosaic : OcrMosaic.pack(sizes, ocrMosaicMaxSide, maxTiles, Math.max(0, ocrMosaicGutter))) {
+            if (!mosaic.isComposite()) {
+                DecodedImage image = images.get(mosaic.placements().get(0).index());
+                result.set(mosaic.placements().get(0).index(), () -> fetchBaiduOcrWordsWithLocationAsync(session, image));
+                continue;
+            }
+
+            CompletableFuture<List<OcrWordBox>> mosaicWords = new CompletableFuture<>();
+            AtomicBoolean started = new AtomicBoolean();
+            Supplier<CompletableFuture<List<OcrWordBox>>> mosaicCall = () -> {
+                if (started.compareAndSet(false, true)) {
+                    DecodedImage composite = DecodedImage.ofRaster(mosaic.render(index -> images.get(index).rgb()), this::encodeImageToBase64Png);
+                    LOGGER.info("OCR mosaic: {} tiles packed into one request", mosaic.placements().size());
+                    fetchBaiduOcrWordsWithLocationAsync(session, composite).whenComplete((words, error) -> {
+                        if (error != null) {
+                            mosaicWords.completeExceptionally(OcrFanOut.unwrap(error));
+                        } else {
+                            mosaicWords.complete(words);
+                        }
+                    });
+                }
+                return mosaicWords;
+            };
+            for (OcrMosaic.Placement placement : mosaic.placements()) {
+                DecodedImage image = images.get(placement.index());
+                result.set(placement.index(), () -> mosaicCall.get()
+                        .thenApply(words -> demultiplexMosaicWords(words, mosaic, placement))
+                        .exceptionallyCompose(error -> {
+                            Throwable cause = OcrFanOut.unwrap(error);
+                            if (!isImageSizeOrFormatError(cause.getMessage())) {
+                                return CompletableFuture.failedFuture(cause);
+                            }
+                            return fetchBaiduOcrWordsWithLocationAsync(session, image);
+                        }));
+            }
+        }
+        return result;
+    }
+
+    private List<OcrWordBox> demultiplexMosaicWords(List<OcrWordBox> words, OcrMosaic mosaic, OcrMosaic.Placement placement) {
+        List<OcrWordBox> result = new ArrayList<>();
+        for (OcrWordBox word : words) {
+            for (OcrMosaic.WordSlice slice : mosaic.slice(word.words(), word.left(), word.top(), word.width(), word.height(), placement)) {
+                result.add(new OcrWordBox(slice.words(), slice.left(), slice.top(), slice.width(), slice.height()));
+            }
+        }
+        return result;
+    }
+
+    private CompletableFuture<JsonNode> callBaiduOcr(
+            OcrSession session,
+            DecodedImage image,
             String endpoint,
             boolean detectDirection,
             boolean needLocation,
-            String serviceName
+            String serviceName,
+            CompletableFuture<Void> dispatched
     ) {
-        try {
-            acquireGlobalOcrPermit();
-            markOcrServiceUsed(endpoint);
-            String url = "https://aip.baidubce.com/rest/2.0/ocr/v1/" + endpoint + "?access_token="
-                    + URLEncoder.encode(accessToken, StandardCharsets.UTF_8);
+        if (session.deadline().isExpired()) {
+            return CompletableFuture.failedFuture(new IllegalStateException(serviceName + " 已超过请求截止时间，跳过调用"));
+        }
+        byte[] payload = image.bytes();
+        if (payload == null || payload.length == 0) {
+            return CompletableFuture.failedFuture(new IllegalStateException(serviceName + " 图片数据无法解码: " + image.decodeError()));
+        }
+        markOcrServiceUsed(session, endpoint);
+        return session.deadline().bind(baiduOcrClient.recognize(payload, image.contentHash(), endpoint, detectDirection, needLocation, serviceName, dispatched));
+    }
 
-            StringBuilder body = new StringBuilder("image=")
-                    .append(URLEncoder.encode(base64, StandardCharsets.UTF_8))
-                    .append("&detect_direction=")
-                    .append(detectDirection)
-                    .append("&probability=false");
+    private OcrSession ocrSession() {
+        return ocrSession(OcrDeadline.none());
+    }
 
-            if (needLocation) {
-                body.append("&vertexes_location=false");
-            }
+    private OcrSession ocrSession(OcrDeadline deadline) {
+        return new OcrSession(ocrServicesUsed.get(), deadline);
+    }
+
+    private List<ColorRequirement> coalesceExtraction(String key, Supplier<List<ColorRequirement>> computation) {
+        return coalesceRecognition(key, OcrDeadline.none(), computation, this::copyColorRequirements, requirements -> false);
+    }
 
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .header("Content-Type", "application/x-www-form-urlencoded")
-                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
-                    .build();
+    private GridAnalysisResult coalesceGridAnalysis(OcrDeadline deadline, String key, Supplier<GridAnalysisResult> computation) {
+        return coalesceRecognition(key, deadline, computation, this::copyGridAnalysisResult, GridAnalysisResult::isPartial);
+    }
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() < 200 || response.statusCode() >= 300) {
-                throw new IllegalStateException(serviceName + " 调用失败，HTTP " + response.statusCode());
+    private <T> T coalesceRecognition(
+            String key,
+            OcrDeadline deadline,
+            Supplier<T> computation,
+            UnaryOperator<T> copy,
+            Predicate<T> partial
+    ) {
+        while (true) {
+            CompletableFuture<Object> leader = new CompletableFuture<>();
+            CompletableFuture<Object> inFlight = inFlightRecognitions.putIfAbsent(key, leader);
+            if (inFlight == null) {
+                T result;
+                try {
+                    result = computation.get();
+                } catch (RuntimeException | Error exception) {
+                    inFlightRecognitions.remove(key, leader);
+                    leader.completeExceptionally(exception);
+                    throw exception;
+                }
+                inFlightRecognitions.remove(key, leader);
+                leader.complete(result);
+                return copy.apply(result);
             }
 
-            JsonNode root = objectMapper.readTree(response.body());
-            if (root.hasNonNull("error_code")) {
-                int code = root.path("error_code").asInt();
-                String message = root.path("error_msg").asText("unknown");
-                throw new IllegalStateException(serviceName + " 错误[" + code + "]: " + message);
+            LOGGER.info("recognition coalesced with an identical in-flight request: {}", key);
+            T shared = awaitCoalescedRecognition(inFlight, deadline);
+            if (!partial.test(shared) || deadline.isExpired()) {
+                return copy.apply(shared);
             }
-            return root;
-        } catch (RuntimeException exception) {
-            throw exception;
-        } catch (Exception exception) {
-            throw new IllegalStateException(serviceName + " 调用异常: " + exception.getMessage(), exception);
+            LOGGER.info("coalesced recognition ended early with a partial result, run again before this request's deadline: {}", key);
         }
     }
 
-    private void acquireGlobalOcrPermit() {
-        synchronized (OCR_RATE_LIMIT_LOCK) {
-            while (true) {
-                long now = System.nanoTime();
-                long waitNanos = OCR_MIN_INTERVAL_NANOS - (now - lastOcrRequestNanos);
-                if (waitNanos <= 0) {
-                    lastOcrRequestNanos = now;
-                    return;
-                }
+    @SuppressWarnings("unchecked")
+    private <T> T awaitCoalescedRecognition(CompletableFuture<Object> inFlight, OcrDeadline deadline) {
+        long remainingMillis = deadline.remainingMillis();
+        try {
+            return (T) (remainingMillis == Long.MAX_VALUE ? inFlight.get() : inFlight.get(remainingMillis, TimeUnit.MILLISECONDS));
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待相同识别请求结果时被中断", interruptedException);
+        } catch (TimeoutException timeoutException) {
+            throw new IllegalStateException("等待相同识别请求结果超过请求截止时间", timeoutException);
+        } catch (ExecutionException executionException) {
+            throw toRuntimeException(executionException.getCause());
+        }
+    }
 
-                long waitMillis = waitNanos / 1_000_000L;
-                int waitNanoPart = (int) (waitNanos % 1_000_000L);
-                try {
-                    OCR_RATE_LIMIT_LOCK.wait(waitMillis, waitNanoPart);
-                } catch (InterruptedException interruptedException) {
-                    Thread.currentThread().interrupt();
-                    throw new IllegalStateException("OCR调用被中断", interruptedException);
-                }
+    private List<ColorRequirement> copyColorRequirements(List<ColorRequirement> requirements) {
+        List<ColorRequirement> copy = new ArrayList<>(requirements.size());
+        for (ColorRequirement requirement : requirements) {
+            copy.add(new ColorRequirement(requirement.getCode(), requirement.getQuantity()));
+        }
+        return copy;
+    }
+
+    private GridAnalysisResult copyGridAnalysisResult(GridAnalysisResult result) {
+        GridAnalysisResult copy = new GridAnalysisResult();
+        copy.setRows(result.getRows());
+        copy.setCols(result.getCols());
+        copy.setOcrCount(result.getOcrCount());
+        copy.setFilledCount(result.getFilledCount());
+        copy.setOcrServiceSummary(result.getOcrServiceSummary());
+        copy.setPartial(result.isPartial());
+        List<GridAnalysisCell> cells = new ArrayList<>(result.getCells().size());
+        for (GridAnalysisCell cell : result.getCells()) {
+            cells.add(new GridAnalysisCell(cell.getRow(), cell.getCol(), cell.getCode()));
+        }
+        copy.setCells(cells);
+        return copy;
+    }
+
+    private String recognitionKey(String operation, Object image, Object... parameters) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            if (image instanceof byte[] bytes) {
+                digest.update(bytes);
+            } else if (image != null) {
+                digest.update(String.valueOf(image).getBytes(StandardCharsets.UTF_8));
             }
+            for (Object parameter : parameters) {
+                digest.update((byte) 0);
+                digest.update(String.valueOf(parameter).getBytes(StandardCharsets.UTF_8));
+            }
+            return operation + ":" + HexFormat.of().formatHex(digest.digest(), 0, 16);
+        } catch (Exception exception) {
+            throw new IllegalStateException("计算识别请求键失败: " + exception.getMessage(), exception);
+        }
+    }
+
+    private <T> T awaitOcr(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException interruptedException) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("OCR调用被中断", interruptedException);
+        } catch (ExecutionException executionException) {
+            throw toRuntimeException(OcrFanOut.unwrap(executionException.getCause()));
+        }
+    }
+
+    private static <T> OcrAttempt<T> toOcrAttempt(T value, Throwable error) {
+        return new OcrAttempt<>(value, error == null ? null : OcrFanOut.unwrap(error));
+    }
+
+    private static RuntimeException toRuntimeException(Throwable error) {
+        if (error instanceof RuntimeException runtimeException) {
+            return runtimeException;
         }
+        return new IllegalStateException(error.getMessage(), error);
     }
 
     private GridAnalysisResult mapWordsToGrid(
@@ -1688,7 +2149,7 @@ public class BeadService {
             }
         }
 
-        Map<String, Map<String, CodeHit>> gridVotes = new HashMap<>();
+        GridVotes gridVotes = new GridVotes(rows, cols);
         int ocrCount = 0;
 
         for (OcrWordBox word : words) {
@@ -1708,49 +2169,12 @@ public class BeadService {
                 double cellCenterX = (xBoundaries[col] + xBoundaries[col + 1]) / 2.0;
                 double cellCenterY = (yBoundaries[row] + yBoundaries[row + 1]) / 2.0;
                 double distance = Math.hypot(tokenHit.centerX() - cellCenterX, tokenHit.centerY() - cellCenterY);
-                String key = row + "," + col;
-                Map<String, CodeHit> codeHits = gridVotes.computeIfAbsent(key, ignored -> new HashMap<>());
-                CodeHit previous = codeHits.get(tokenHit.code());
-                if (previous == null) {
-                    codeHits.put(tokenHit.code(), new CodeHit(1, distance));
-                } else {
-                    codeHits.put(tokenHit.code(), new CodeHit(previous.count() + 1, Math.min(previous.minDistance(), distance)));
-                }
+                gridVotes.vote(row, col, tokenHit.code(), distance);
                 ocrCount++;
             }
         }
 
-        List<GridAnalysisCell> cells = new ArrayList<>();
-        for (Map.Entry<String, Map<String, CodeHit>> entry : gridVotes.entrySet()) {
-            Map<String, CodeHit> codeHits = entry.getValue();
-            if (codeHits == null || codeHits.isEmpty()) {
-                continue;
-            }
-            String bestCode = codeHits.entrySet().stream()
-                    .sorted((left, right) -> {
-                        int countCompare = Integer.compare(right.getValue().count(), left.getValue().count());
-                        if (countCompare != 0) {
-                            return countCompare;
-                        }
-                        int distanceCompare = Double.compare(left.getValue().minDistance(), right.getValue().minDistance());
-                        if (distanceCompare != 0) {
-                            return distanceCompare;
-                        }
-                        return compareColorCodes(left.getKey(), right.getKey());
-                    })
-                    .map(Map.Entry::getKey)
-                    .findFirst()
-                    .orElse(null);
-            if (bestCode == null || bestCode.isBlank()) {
-                continue;
-            }
-
-            String[] rc = entry.getKey().split(",");
-            int r = Integer.parseInt(rc[0]);
-            int c = Integer.parseInt(rc[1]);
-            cells.add(new GridAnalysisCell(r, c, bestCode));
-        }
-        cells.sort(Comparator.comparingInt(GridAnalysisCell::getRow).thenComparingInt(GridAnalysisCell::getCol));
+        List<GridAnalysisCell> cells = gridVotes.winners(palette::compare);
 
         GridAnalysisResult result = new GridAnalysisResult();
         result.setRows(rows);
@@ -1762,19 +2186,18 @@ public class BeadService {
     }
 
     private PreparedGridImage prepareImageForGridRecognition(
-            String base64,
+            DecodedImage image,
             int rows,
             int cols,
             int fallbackWidth,
             int fallbackHeight
     ) {
-        BufferedImage source = decodeBase64Image(base64);
-        if (source == null) {
+        BufferedImage rgb = image.rgb();
+        if (rgb == null) {
             GridGeometry fallbackGeometry = buildUniformGridGeometry(rows, cols, fallbackWidth, fallbackHeight);
-            return new PreparedGridImage(base64, fallbackGeometry, false);
+            return new PreparedGridImage(image, fallbackGeometry, false);
         }
 
-        BufferedImage rgb = ensureRgbImage(source);
         PerspectiveCorrectionResult corrected = correctPerspectiveIfPossible(rgb);
         BufferedImage aligned = corrected.correctedImage() == null ? rgb : corrected.correctedImage();
 
@@ -1795,33 +2218,30 @@ public class BeadService {
             preprocessed = true;
         }
 
-        String encoded = encodeImageToBase64Png(finalImage);
-        if (encoded == null || encoded.isBlank()) {
-            encoded = base64;
+        if (finalImage == rgb) {
+            return new PreparedGridImage(image, finalGeometry, preprocessed);
         }
-
-        return new PreparedGridImage(encoded, finalGeometry, preprocessed);
+        DecodedImage prepared = DecodedImage.ofRaster(finalImage, candidate -> {
+            String encoded = encodeImageToBase64Png(candidate);
+            return encoded == null || encoded.isBlank() ? image.base64() : encoded;
+        });
+        return new PreparedGridImage(prepared, finalGeometry, preprocessed);
     }
 
     private PreparedGridImage buildBaselineGridImage(
-            String base64,
+            DecodedImage image,
             int rows,
             int cols,
             int fallbackWidth,
             int fallbackHeight
     ) {
-        BufferedImage source = decodeBase64Image(base64);
-        if (source == null) {
+        BufferedImage rgb = image.rgb();
+        if (rgb == null) {
             GridGeometry fallbackGeometry = buildUniformGridGeometry(rows, cols, fallbackWidth, fallbackHeight);
-            return new PreparedGridImage(base64, fallbackGeometry, false);
+            return new PreparedGridImage(image, fallbackGeometry, false);
         }
-        BufferedImage rgb = ensureRgbImage(source);
         GridGeometry geometry = buildUniformGridGeometry(rows, cols, rgb.getWidth(), rgb.getHeight());
-        String encoded = encodeImageToBase64Png(rgb);
-        if (encoded == null || encoded.isBlank()) {
-            encoded = base64;
-        }
-        return new PreparedGridImage(encoded, geometry, false);
+        return new PreparedGridImage(image, geometry, false);
     }
 
     private GridGeometry detectGridGeometry(BufferedImage image, int rows, int cols) {
@@ -1829,9 +2249,7 @@ public class BeadService {
             return null;
         }
 
-        BufferedImage gray = toGrayscale(image);
-        int threshold = computeOtsuThreshold(gray);
-        BufferedImage binary = toBinary(gray, threshold, true);
+        ImageKernels.BinaryMask binary = ImageKernels.otsuMask(image, true);
 
         int[] xBoundaries = detectGridBoundaries(binary, cols + 1, true);
         int[] yBoundaries = detectGridBoundaries(binary, rows + 1, false);
@@ -1869,25 +2287,16 @@ public class BeadService {
         return avgShift <= Math.max(2.5, uniformStep * 0.22);
     }
 
-    private int[] detectGridBoundaries(BufferedImage binary, int boundaryCount, boolean vertical) {
-        int length = vertical ? binary.getWidth() : binary.getHeight();
-        int orthogonal = vertical ? binary.getHeight() : binary.getWidth();
+    private int[] detectGridBoundaries(ImageKernels.BinaryMask binary, int boundaryCount, boolean vertical) {
+        int length = vertical ? binary.width() : binary.height();
         if (boundaryCount <= 1 || length <= 2) {
             return null;
         }
 
+        int[] profile = ImageKernels.darkProfile(binary, vertical);
         double[] score = new double[length];
         for (int primary = 0; primary < length; primary++) {
-            int dark = 0;
-            for (int secondary = 0; secondary < orthogonal; secondary++) {
-                int x = vertical ? primary : secondary;
-                int y = vertical ? secondary : primary;
-                int lum = binary.getRGB(x, y) & 0xFF;
-                if (lum <= 110) {
-                    dark++;
-                }
-            }
-            score[primary] = dark;
+            score[primary] = profile[primary];
         }
 
         double[] smooth = smoothArray(score, Math.max(2, length / Math.max(16, boundaryCount * 2)));
@@ -2026,9 +2435,7 @@ public class BeadService {
             return new PerspectiveCorrectionResult(image, false);
         }
 
-        BufferedImage gray = toGrayscale(image);
-        int threshold = computeOtsuThreshold(gray);
-        BufferedImage binary = toBinary(gray, threshold, true);
+        ImageKernels.BinaryMask binary = ImageKernels.otsuMask(image, true);
 
         EdgeQuadrilateral quad = detectOuterQuadrilateral(binary);
         if (quad == null) {
@@ -2042,15 +2449,15 @@ public class BeadService {
         return new PerspectiveCorrectionResult(warped, true);
     }
 
-    private EdgeQuadrilateral detectOuterQuadrilateral(BufferedImage binary) {
-        int width = binary.getWidth();
-        int height = binary.getHeight();
+    private EdgeQuadrilateral detectOuterQuadrilateral(ImageKernels.BinaryMask binary) {
+        int width = binary.width();
+        int height = binary.height();
 
         List<PointD> leftPoints = new ArrayList<>();
         List<PointD> rightPoints = new ArrayList<>();
         for (int y = 0; y < height; y++) {
-            int left = findFirstDarkPixelOnRow(binary, y, true);
-            int right = findFirstDarkPixelOnRow(binary, y, false);
+            int left = ImageKernels.firstDarkOnRow(binary, y, true);
+            int right = ImageKernels.firstDarkOnRow(binary, y, false);
             if (left >= 0) {
                 leftPoints.add(new PointD(left, y));
             }
@@ -2062,8 +2469,8 @@ public class BeadService {
         List<PointD> topPoints = new ArrayList<>();
         List<PointD> bottomPoints = new ArrayList<>();
         for (int x = 0; x < width; x++) {
-            int top = findFirstDarkPixelOnCol(binary, x, true);
-            int bottom = findFirstDarkPixelOnCol(binary, x, false);
+            int top = ImageKernels.firstDarkOnCol(binary, x, true);
+            int bottom = ImageKernels.firstDarkOnCol(binary, x, false);
             if (top >= 0) {
                 topPoints.add(new PointD(x, top));
             }
@@ -2126,44 +2533,6 @@ public class BeadService {
         return ratio <= 2.0;
     }
 
-    private int findFirstDarkPixelOnRow(BufferedImage binary, int y, boolean fromLeft) {
-        if (fromLeft) {
-            for (int x = 0; x < binary.getWidth(); x++) {
-                int lum = binary.getRGB(x, y) & 0xFF;
-                if (lum <= 110) {
-                    return x;
-                }
-            }
-        } else {
-            for (int x = binary.getWidth() - 1; x >= 0; x--) {
-                int lum = binary.getRGB(x, y) & 0xFF;
-                if (lum <= 110) {
-                    return x;
-                }
-            }
-        }
-        return -1;
-    }
-
-    private int findFirstDarkPixelOnCol(BufferedImage binary, int x, boolean fromTop) {
-        if (fromTop) {
-            for (int y = 0; y < binary.getHeight(); y++) {
-                int lum = binary.getRGB(x, y) & 0xFF;
-                if (lum <= 110) {
-                    return y;
-                }
-            }
-        } else {
-            for (int y = binary.getHeight() - 1; y >= 0; y--) {
-                int lum = binary.getRGB(x, y) & 0xFF;
-                if (lum <= 110) {
-                    return y;
-                }
-            }
-        }
-        return -1;
-    }
-
     private Line fitLineXAsFunctionOfY(List<PointD> points) {
         if (points == null || points.size() < 2) {
             return null;
@@ -2264,16 +2633,7 @@ public class BeadService {
             return null;
         }
 
-        BufferedImage output = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
-        for (int y = 0; y < targetHeight; y++) {
-            for (int x = 0; x < targetWidth; x++) {
-                PointD mapped = applyHomography(homography, x, y);
-                int rgb = sampleBilinearRgb(source, mapped.x(), mapped.y());
-                output.setRGB(x, y, rgb);
-            }
-        }
-
-        return output;
+        return PerspectiveWarp.warp(source, homography, targetWidth, targetHeight);
     }
 
     private double distance(PointD first, PointD second) {
@@ -2382,52 +2742,6 @@ public class BeadService {
         return result;
     }
 
-    private PointD applyHomography(double[] h, double x, double y) {
-        double denominator = h[6] * x + h[7] * y + h[8];
-        if (Math.abs(denominator) < 1e-10) {
-            return new PointD(-1, -1);
-        }
-        double mappedX = (h[0] * x + h[1] * y + h[2]) / denominator;
-        double mappedY = (h[3] * x + h[4] * y + h[5]) / denominator;
-        return new PointD(mappedX, mappedY);
-    }
-
-    private int sampleBilinearRgb(BufferedImage image, double x, double y) {
-        int width = image.getWidth();
-        int height = image.getHeight();
-
-        if (x < 0 || y < 0 || x >= width - 1 || y >= height - 1) {
-            int clampedX = (int) Math.max(0, Math.min(width - 1, Math.round(x)));
-            int clampedY = (int) Math.max(0, Math.min(height - 1, Math.round(y)));
-            return image.getRGB(clampedX, clampedY);
-        }
-
-        int x0 = (int) Math.floor(x);
-        int y0 = (int) Math.floor(y);
-        int x1 = x0 + 1;
-        int y1 = y0 + 1;
-        double dx = x - x0;
-        double dy = y - y0;
-
-        int rgb00 = image.getRGB(x0, y0);
-        int rgb10 = image.getRGB(x1, y0);
-        int rgb01 = image.getRGB(x0, y1);
-        int rgb11 = image.getRGB(x1, y1);
-
-        int red = bilinearChannel((rgb00 >> 16) & 0xFF, (rgb10 >> 16) & 0xFF, (rgb01 >> 16) & 0xFF, (rgb11 >> 16) & 0xFF, dx, dy);
-        int green = bilinearChannel((rgb00 >> 8) & 0xFF, (rgb10 >> 8) & 0xFF, (rgb01 >> 8) & 0xFF, (rgb11 >> 8) & 0xFF, dx, dy);
-        int blue = bilinearChannel(rgb00 & 0xFF, rgb10 & 0xFF, rgb01 & 0xFF, rgb11 & 0xFF, dx, dy);
-
-        return (red << 16) | (green << 8) | blue;
-    }
-
-    private int bilinearChannel(int c00, int c10, int c01, int c11, double dx, double dy) {
-        double top = c00 * (1.0 - dx) + c10 * dx;
-        double bottom = c01 * (1.0 - dx) + c11 * dx;
-        int value = (int) Math.round(top * (1.0 - dy) + bottom * dy);
-        return Math.max(0, Math.min(255, value));
-    }
-
     private List<TokenHit> extractTokenHitsFromWord(
             OcrWordBox word,
             String text,
@@ -2458,7 +2772,7 @@ public class BeadService {
         if (code == null || code.isBlank()) {
             return null;
         }
-        String normalized = normalizeColorCode(code);
+        String normalized = palette.normalize(code);
         if (normalized.isBlank()) {
             return null;
         }
@@ -2643,72 +2957,45 @@ public class BeadService {
         return options.contains(right);
     }
 
-    private List<String> buildGridOcrVariants(String originalBase64) {
-        List<String> variants = new ArrayList<>();
-        if (originalBase64 == null || originalBase64.isBlank()) {
-            return variants;
-        }
-        variants.add(originalBase64);
-
-        try {
-            BufferedImage source = decodeBase64Image(originalBase64);
-            if (source == null) {
-                return variants;
-            }
-
-            BufferedImage rgb = ensureRgbImage(source);
-            BufferedImage gray = toGrayscale(rgb);
-            int threshold = computeOtsuThreshold(gray);
-
-            List<BufferedImage> images = new ArrayList<>();
-            images.add(scaleImage(applyContrast(gray, 1.45), 2.0));
-            images.add(scaleImage(toBinary(gray, threshold, true), 2.0));
-            images.add(scaleImage(toBinary(gray, threshold, false), 2.0));
-
-            for (BufferedImage image : images) {
-                String encoded = encodeImageToBase64Png(image);
-                if (encoded != null && !encoded.isBlank() && !variants.contains(encoded)) {
-                    variants.add(encoded);
-                }
-                String jpegEncoded = encodeImageToBase64Jpeg(image);
-                if (jpegEncoded != null && !jpegEncoded.isBlank() && !variants.contains(jpegEncoded)) {
-                    variants.add(jpegEncoded);
-                }
-            }
-        } catch (Exception ignored) {
+    private OcrVariantSupplier buildGridOcrVariants(DecodedImage original) {
+        OcrVariantSupplier variants = new OcrVariantSupplier().original(original);
+        if (original == null) {
             return variants;
         }
 
-        return variants;
-    }
-
-    private BufferedImage decodeBase64Image(String base64) {
-        try {
-            String sanitized = sanitizeBase64Payload(base64);
-            byte[] bytes;
-            try {
-                bytes = Base64.getDecoder().decode(sanitized);
-            } catch (IllegalArgumentException decodeException) {
-                bytes = Base64.getMimeDecoder().decode(sanitized);
-            }
-            return ImageIO.read(new ByteArrayInputStream(bytes));
-        } catch (Exception exception) {
-            return null;
-        }
+        Supplier<ImageKernels.GrayPlane> gray = OcrVariantSupplier.memoize(() -> {
+            BufferedImage rgb = original.rgb();
+            return rgb == null ? null : ImageKernels.grayscale(rgb);
+        });
+        Supplier<Integer> threshold = OcrVariantSupplier.memoize(() -> ImageKernels.otsuThreshold(gray.get()));
+        Supplier<BufferedImage> contrast = () -> gray.get() == null
+                ? null
+                : scaleImage(ImageKernels.toContrastImage(gray.get(), 1.45), 2.0);
+        Supplier<BufferedImage> darkBinary = () -> gray.get() == null
+                ? null
+                : scaleImage(ImageKernels.toBinaryImage(gray.get(), threshold.get(), true), 2.0);
+        Supplier<BufferedImage> lightBinary = () -> gray.get() == null
+                ? null
+                : scaleImage(ImageKernels.toBinaryImage(gray.get(), threshold.get(), false), 2.0);
+
+        return variants
+                .add("contrast-1.45@2x", "png", contrast, this::encodeImageToBase64Png)
+                .add("contrast-1.45@2x", "jpg", contrast, this::encodeImageToBase64Jpeg)
+                .add("binary-dark@2x", "png", darkBinary, this::encodeImageToBase64Png)
+                .add("binary-dark@2x", "jpg", darkBinary, this::encodeImageToBase64Jpeg)
+                .add("binary-light@2x", "png", lightBinary, this::encodeImageToBase64Png)
+                .add("binary-light@2x", "jpg", lightBinary, this::encodeImageToBase64Jpeg);
     }
 
     private String encodeImageToBase64Jpeg(BufferedImage image) {
         try {
-            BufferedImage rgb = ensureRgbImage(image);
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            ImageIO.write(rgb, "jpg", outputStream);
-            return Base64.getEncoder().encodeToString(outputStream.toByteArray());
+            return imageCodec.encodeJpegBase64(image);
         } catch (Exception exception) {
             return null;
         }
     }
 
-    private String cropImageByRect(
+    private DecodedImage cropImageByRect(
             String originalImageBase64,
             Integer cropX,
             Integer cropY,
@@ -2727,18 +3014,28 @@ public class BeadService {
             LOGGER.warn("crop-image: source base64 empty after strip/sanitize");
             return null;
         }
+        return cropImageByRect(DecodedImage.ofBase64(sourceBase64), cropX, cropY, cropWidth, cropHeight);
+    }
+
+    private DecodedImage cropImageByRect(
+            DecodedImage sourceImage,
+            Integer cropX,
+            Integer cropY,
+            Integer cropWidth,
+            Integer cropHeight
+    ) {
         if (cropX == null || cropY == null || cropWidth == null || cropHeight == null || cropWidth <= 0 || cropHeight <= 0) {
-            return normalizeImageBase64ForOcr(sourceBase64);
+            return sourceImage;
         }
 
-        BufferedImage source = decodeBase64Image(sourceBase64);
-        if (source == null) {
+        Dimension sourceSize = sourceImage.sourceSize();
+        if (sourceSize == null) {
             LOGGER.warn("crop-image: decode failed before cropping");
             return null;
         }
 
-        int imageWidth = source.getWidth();
-        int imageHeight = source.getHeight();
+        int imageWidth = sourceSize.width;
+        int imageHeight = sourceSize.height;
         if (imageWidth <= 0 || imageHeight <= 0) {
             LOGGER.warn("crop-image: invalid source image size {}x{}", imageWidth, imageHeight);
             return null;
@@ -2756,34 +3053,53 @@ public class BeadService {
             return null;
         }
 
-        BufferedImage cropped = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
-        Graphics2D graphics = cropped.createGraphics();
-        graphics.drawImage(source, 0, 0, targetWidth, targetHeight, sx, sy, ex, ey, null);
-        graphics.dispose();
-
-        String encoded = encodeImageToBase64Png(cropped);
-        if (encoded == null || encoded.isBlank()) {
-            LOGGER.warn("crop-image: re-encode png failed after crop {}x{}", targetWidth, targetHeight);
+        DecodedImage cropped = sourceImage.decodeRegion(sx, sy, targetWidth, targetHeight, maxDecodeSide, image -> {
+            String encoded = encodeImageToBase64Png(image);
+            if (encoded == null || encoded.isBlank()) {
+                LOGGER.warn("crop-image: re-encode png failed after crop {}x{}", image.getWidth(), image.getHeight());
+            }
+            return encoded;
+        });
+        if (cropped == null) {
+            LOGGER.warn("crop-image: region decode failed for rect {}x{} with source {}x{}", targetWidth, targetHeight, imageWidth, imageHeight);
+            return null;
+        }
+        if (cropped.width() != targetWidth || cropped.height() != targetHeight) {
+            LOGGER.info("crop-image: region {}x{} subsampled to {}x{} (max side {})",
+                    targetWidth, targetHeight, cropped.width(), cropped.height(), maxDecodeSide);
         }
-        return (encoded == null || encoded.isBlank()) ? null : encoded;
+        return cropped;
     }
 
-    private String normalizeImageBase64ForOcr(String base64) {
-        if (base64 == null || base64.isBlank()) {
-            return base64;
+    private DecodedImage normalizeImageForOcr(DecodedImage source) {
+        if (source == null) {
+            return null;
+        }
+        if (source.isRasterBacked()) {
+            return source;
         }
-        String sanitized = sanitizeBase64Payload(base64);
-        BufferedImage decoded = decodeBase64Image(sanitized);
-        if (decoded == null) {
-            LOGGER.warn("normalize-image: decode failed, keep sanitized payload. length={}", sanitized.length());
-            return sanitized;
+        BufferedImage rgb = source.rgb();
+        if (rgb == null) {
+            String payload = source.base64();
+            LOGGER.warn("normalize-image: decode failed, keep sanitized payload. length={}", payload == null ? 0 : payload.length());
+            return source;
         }
-        BufferedImage rgb = ensureRgbImage(decoded);
-        String encoded = encodeImageToBase64Png(rgb);
-        return (encoded == null || encoded.isBlank()) ? sanitized : encoded;
+        return DecodedImage.ofRaster(rgb, image -> {
+            String encoded = encodeImageToBase64Png(image);
+            return (encoded == null || encoded.isBlank()) ? source.base64() : encoded;
+        });
     }
 
-    private void logImagePayloadDiagnostics(String scene, String originalPayload, String strippedPayload) {
+    private void logImagePayloadDiagnostics(String scene, String originalPayload, DecodedImage stripped) {
+        if (stripped != null && !stripped.hasBase64Payload()) {
+            LOGGER.info("ocr-payload[{}]: {} image without base64 payload, originalLength={}, imageSize={}x{}",
+                    scene,
+                    stripped.isRasterBacked() ? "decoded" : stripped.decoderName(),
+                    originalPayload == null ? 0 : originalPayload.length(),
+                    stripped.width(),
+                    stripped.height());
+            return;
+        }
         try {
             boolean hasDataPrefix = originalPayload != null && originalPayload.startsWith("data:");
             String mimeHint = "unknown";
@@ -2795,44 +3111,19 @@ public class BeadService {
                 }
             }
 
-            String payload = strippedPayload == null ? "" : strippedPayload;
+            String payload = stripped == null || stripped.base64() == null ? "" : stripped.base64();
             String sample = payload.isBlank() ? "" : payload.substring(0, Math.min(24, payload.length()));
 
-            byte[] decodedBytes = null;
-            boolean decoderOk = false;
-            boolean mimeDecoderOk = false;
-            String decoderError = "";
-            try {
-                decodedBytes = Base64.getDecoder().decode(payload);
-                decoderOk = true;
-            } catch (Exception ex) {
-                decoderError = ex.getClass().getSimpleName() + ":" + ex.getMessage();
-                try {
-                    decodedBytes = Base64.getMimeDecoder().decode(payload);
-                    mimeDecoderOk = true;
-                } catch (Exception ex2) {
-                    decoderError = decoderError + " | mime=" + ex2.getClass().getSimpleName() + ":" + ex2.getMessage();
-                }
-            }
-
-            boolean imageReadable = false;
-            int width = -1;
-            int height = -1;
-            if (decodedBytes != null) {
-                try {
-                    BufferedImage image = ImageIO.read(new ByteArrayInputStream(decodedBytes));
-                    imageReadable = image != null;
-                    if (image != null) {
-                        width = image.getWidth();
-                        height = image.getHeight();
-                    }
-                } catch (Exception imageEx) {
-                    decoderError = decoderError + " | imageio=" + imageEx.getClass().getSimpleName() + ":" + imageEx.getMessage();
-                }
-            }
+            String decoderName = stripped == null ? "none" : stripped.decoderName();
+            boolean decoderOk = "std".equals(decoderName);
+            boolean mimeDecoderOk = "mime".equals(decoderName);
+            boolean imageReadable = stripped != null && stripped.isReadable();
+            int width = imageReadable ? stripped.width() : -1;
+            int height = imageReadable ? stripped.height() : -1;
+            String decoderError = stripped == null ? "" : stripped.decodeError();
 
             LOGGER.info(
-                    "ocr-payload[{}]: hasDataPrefix={}, mimeHint={}, strippedLength={}, sampleHead={}, base64DecoderOk={}, mimeDecoderOk={}, imageReadable={}, imageSize={}x{}, decodeError={}",
+                    "ocr-payload[{}]: hasDataPrefix={}, mimeHint={}, strippedLength={}, sampleHead={}, base64DecoderOk={}, mimeDecoderOk={}, imageReadable={}, imageSize={}x{}, sha256={}, decodeError={}",
                     scene,
                     hasDataPrefix,
                     mimeHint,
@@ -2843,6 +3134,7 @@ public class BeadService {
                     imageReadable,
                     width,
                     height,
+                    stripped == null ? "" : stripped.contentHash(),
                     decoderError
             );
         } catch (Exception ignored) {
@@ -2850,102 +3142,6 @@ public class BeadService {
         }
     }
 
-    private BufferedImage ensureRgbImage(BufferedImage input) {
-        if (input.getType() == BufferedImage.TYPE_INT_RGB) {
-            return input;
-        }
-        BufferedImage rgb = new BufferedImage(input.getWidth(), input.getHeight(), BufferedImage.TYPE_INT_RGB);
-        Graphics2D graphics = rgb.createGraphics();
-        graphics.setComposite(AlphaComposite.Src);
-        graphics.drawImage(input, 0, 0, null);
-        graphics.dispose();
-        return rgb;
-    }
-
-    private BufferedImage toGrayscale(BufferedImage input) {
-        BufferedImage gray = new BufferedImage(input.getWidth(), input.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
-        Graphics2D graphics = gray.createGraphics();
-        graphics.drawImage(input, 0, 0, null);
-        graphics.dispose();
-        return gray;
-    }
-
-    private BufferedImage applyContrast(BufferedImage input, double factor) {
-        BufferedImage output = new BufferedImage(input.getWidth(), input.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
-        for (int y = 0; y < input.getHeight(); y++) {
-            for (int x = 0; x < input.getWidth(); x++) {
-                int rgb = input.getRGB(x, y);
-                int lum = rgb & 0xFF;
-                int enhanced = (int) Math.round((lum - 128) * factor + 128);
-                int clamped = Math.max(0, Math.min(255, enhanced));
-                int value = (clamped << 16) | (clamped << 8) | clamped;
-                output.setRGB(x, y, value);
-            }
-        }
-        return output;
-    }
-
-    private BufferedImage toBinary(BufferedImage gray, int threshold, boolean darkText) {
-        BufferedImage output = new BufferedImage(gray.getWidth(), gray.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
-        for (int y = 0; y < gray.getHeight(); y++) {
-            for (int x = 0; x < gray.getWidth(); x++) {
-                int lum = gray.getRGB(x, y) & 0xFF;
-                boolean textPixel = darkText ? lum <= threshold : lum >= threshold;
-                int value = textPixel ? 0 : 255;
-                int rgb = (value << 16) | (value << 8) | value;
-                output.setRGB(x, y, rgb);
-            }
-        }
-        return output;
-    }
-
-    private int computeOtsuThreshold(BufferedImage gray) {
-        int[] histogram = new int[256];
-        int width = gray.getWidth();
-        int height = gray.getHeight();
-        int total = width * height;
-
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                int lum = gray.getRGB(x, y) & 0xFF;
-                histogram[lum]++;
-            }
-        }
-
-        double sum = 0;
-        for (int i = 0; i < 256; i++) {
-            sum += i * histogram[i];
-        }
-
-        double sumBackground = 0;
-        int weightBackground = 0;
-        double maxVariance = -1;
-        int threshold = 128;
-
-        for (int i = 0; i < 256; i++) {
-            weightBackground += histogram[i];
-            if (weightBackground == 0) {
-                continue;
-            }
-            int weightForeground = total - weightBackground;
-            if (weightForeground == 0) {
-                break;
-            }
-
-            sumBackground += (double) i * histogram[i];
-            double meanBackground = sumBackground / weightBackground;
-            double meanForeground = (sum - sumBackground) / weightForeground;
-            double variance = (double) weightBackground * weightForeground * Math.pow(meanBackground - meanForeground, 2);
-
-            if (variance > maxVariance) {
-                maxVariance = variance;
-                threshold = i;
-            }
-        }
-
-        return threshold;
-    }
-
     private BufferedImage scaleImage(BufferedImage input, double factor) {
         int width = Math.max(1, (int) Math.round(input.getWidth() * factor));
         int height = Math.max(1, (int) Math.round(input.getHeight() * factor));
@@ -2959,9 +3155,7 @@ public class BeadService {
 
     private String encodeImageToBase64Png(BufferedImage image) {
         try {
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            ImageIO.write(image, "png", outputStream);
-            return Base64.getEncoder().encodeToString(outputStream.toByteArray());
+            return imageCodec.encodePngBase64(image);
         } catch (Exception exception) {
             return null;
         }
@@ -3033,29 +3227,28 @@ public class BeadService {
         return isImageSizeError(message) || isImageFormatError(message);
     }
 
-    private int resolveImageSizeSplitCount(String base64) {
-        BufferedImage image = decodeBase64Image(base64);
-        if (image == null) {
+    private int resolveImageSizeSplitCount(DecodedImage image) {
+        if (image == null || !image.isReadable()) {
             return 1;
         }
-        int maxSide = Math.max(image.getWidth(), image.getHeight());
+        int maxSide = Math.max(image.width(), image.height());
         if (maxSide <= 3400) {
             return 1;
         }
         return Math.max(2, (int) Math.ceil(maxSide / 3000.0));
     }
 
-    private ColorExtractionBundle extractColorsByTiledOcr(String accessToken, String base64) {
-        BufferedImage sourceImage = decodeBase64Image(base64);
+    private ColorExtractionBundle extractColorsByTiledOcr(OcrSession session, DecodedImage image) {
+        BufferedImage sourceImage = image.rgb();
         if (sourceImage == null) {
             return new ColorExtractionBundle(
                     List.of(),
                     List.of(),
-                    List.of("分块兜底失败：图片解码失败，无法切块；" + diagnoseBase64Payload(base64))
+                    List.of("分块兜底失败：图片解码失败，无法切块；" + diagnoseImagePayload(image))
             );
         }
 
-        int splitCount = Math.max(2, resolveImageSizeSplitCount(base64));
+        int splitCount = Math.max(2, resolveImageSizeSplitCount(image));
 
         int width = sourceImage.getWidth();
         int height = sourceImage.getHeight();
@@ -3066,6 +3259,7 @@ public class BeadService {
         Map<String, Integer> mergedText = new LinkedHashMap<>();
         List<String> tileLogs = new ArrayList<>();
         tileLogs.add("分块兜底执行：split=" + splitCount + "x" + splitCount + "，原图尺寸=" + width + "x" + height);
+        List<ColorTile> tiles = new ArrayList<>();
 
         for (int tileRow = 0; tileRow < splitCount; tileRow++) {
             int yStart = tileRow * height / splitCount;
@@ -3081,48 +3275,93 @@ public class BeadService {
 
                 int tileWidth = Math.max(1, ex - sx);
                 int tileHeight = Math.max(1, ey - sy);
-                BufferedImage tileImage = new BufferedImage(tileWidth, tileHeight, BufferedImage.TYPE_INT_RGB);
-                Graphics2D graphics = tileImage.createGraphics();
-                graphics.drawImage(sourceImage, 0, 0, tileWidth, tileHeight, sx, sy, ex, ey, null);
-                graphics.dispose();
+                DecodedImage tile = image.region(sx, sy, tileWidth, tileHeight, this::encodeImageToBase64Png);
+                String tileName = "tile(" + (tileRow + 1) + "/" + splitCount + "," + (tileCol + 1) + "/" + splitCount + ")";
+                tiles.add(new ColorTile(tiles.size(), tileName, tile, tileWidth, tileHeight));
+            }
+        }
 
-                String tileBase64 = encodeImageToBase64Png(tileImage);
-                if (tileBase64 == null || tileBase64.isBlank()) {
-                    continue;
-                }
+        List<DecodedImage> tileImages = new ArrayList<>();
+        for (ColorTile tile : tiles) {
+            tileImages.add(tile.image());
+        }
+        List<Supplier<CompletableFuture<List<OcrWordBox>>>> tileWords = locateWordsByMosaic(session, tileImages);
 
-                String tileName = "tile(" + (tileRow + 1) + "/" + splitCount + "," + (tileCol + 1) + "/" + splitCount + ")";
-                tileLogs.add("识别 " + tileName + "，尺寸=" + tileWidth + "x" + tileHeight);
+        awaitOcr(OcrFanOut.<ColorTile, ColorTileResult>run(
+                tiles,
+                baiduOcrClient.maxInFlight(),
+                tile -> {
+                    String tileBase64 = tile.image().base64();
+                    if (tileBase64 == null || tileBase64.isBlank()) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    CompletableFuture<OcrAttempt<List<ColorRequirement>>> byLocation = tileWords.get(tile.index()).get()
+                            .thenApply(this::parseColorRequirementsByLocation)
+                            .handle(BeadService::toOcrAttempt);
+                    CompletableFuture<OcrAttempt<List<ColorRequirement>>> byText = fetchBaiduOcrRawTextAsync(session, tile.image())
+                            .thenApply(this::parseColorRequirements)
+                            .handle(BeadService::toOcrAttempt);
+                    return byLocation.thenCombine(byText, ColorTileResult::new);
+                },
+                (tile, tileResult, tileError) -> {
+                    if (tileError != null) {
+                        throw toRuntimeException(tileError);
+                    }
+                    if (tileResult == null) {
+                        return false;
+                    }
+                    tileLogs.add("识别 " + tile.name() + "，尺寸=" + tile.width() + "x" + tile.height());
 
-                try {
-                    List<OcrWordBox> words = fetchBaiduOcrWordsWithLocation(accessToken, tileBase64);
-                    List<ColorRequirement> byLocation = parseColorRequirementsByLocation(words);
-                    mergeColorRequirements(mergedLocation, byLocation);
-                } catch (RuntimeException tileException) {
-                    if (isQuotaError(tileException.getMessage())) {
-                        throw tileException;
+                    Throwable locationError = tileResult.byLocation().error();
+                    if (locationError == null) {
+                        mergeColorRequirements(mergedLocation, tileResult.byLocation().value());
+                    } else if (isQuotaError(locationError.getMessage())) {
+                        throw toRuntimeException(locationError);
+                    } else {
+                        tileLogs.add(tile.name() + " 坐标识别失败：" + locationError.getMessage());
                     }
-                    tileLogs.add(tileName + " 坐标识别失败：" + tileException.getMessage());
-                }
 
-                try {
-                    String text = fetchBaiduOcrRawText(accessToken, tileBase64);
-                    List<ColorRequirement> byText = parseColorRequirements(text);
-                    mergeColorRequirements(mergedText, byText);
-                } catch (RuntimeException tileException) {
-                    if (isQuotaError(tileException.getMessage())) {
-                        throw tileException;
+                    Throwable textError = tileResult.byText().error();
+                    if (textError == null) {
+                        mergeColorRequirements(mergedText, tileResult.byText().value());
+                    } else if (isQuotaError(textError.getMessage())) {
+                        throw toRuntimeException(textError);
+                    } else {
+                        tileLogs.add(tile.name() + " 文本识别失败：" + textError.getMessage());
                     }
-                    tileLogs.add(tileName + " 文本识别失败：" + tileException.getMessage());
+                    return false;
                 }
-            }
-        }
+        ));
 
         List<ColorRequirement> byLocation = toSortedColorRequirements(mergedLocation);
         List<ColorRequirement> byText = toSortedColorRequirements(mergedText);
         return new ColorExtractionBundle(byLocation, byText, tileLogs);
     }
 
+    private String diagnoseImagePayload(DecodedImage image) {
+        String payload = image == null ? null : image.base64();
+        if (payload == null || payload.isBlank()) {
+            return "base64为空";
+        }
+
+        String head = payload.substring(0, Math.min(24, payload.length()));
+        byte[] decoded = image.bytes();
+        if (decoded == null || decoded.length == 0) {
+            return "len=" + payload.length() + ", head=" + head + ", decode失败=" + image.decodeError();
+        }
+
+        String formatHint = detectImageFormat(decoded);
+        if (!image.isReadable()) {
+            return "len=" + payload.length() + ", head=" + head + ", decoder=" + image.decoderName() + ", formatHint=" + formatHint + ", imageio=unreadable";
+        }
+
+        return "len=" + payload.length()
+                + ", head=" + head
+                + ", decoder=" + image.decoderName()
+                + ", formatHint=" + formatHint
+                + ", size=" + image.width() + "x" + image.height();
+    }
+
     private String diagnoseBase64Payload(String base64) {
         String payload = sanitizeBase64Payload(base64);
         if (payload == null || payload.isBlank()) {
@@ -3207,7 +3446,7 @@ public class BeadService {
             if (item == null) {
                 continue;
             }
-            String code = normalizeColorCode(item.getCode());
+            String code = palette.normalize(item.getCode());
             int quantity = item.getQuantity() == null ? 0 : Math.max(0, item.getQuantity());
             if (code.isBlank() || quantity <= 0) {
                 continue;
@@ -3222,7 +3461,7 @@ public class BeadService {
         }
         return merged.entrySet().stream()
                 .filter(entry -> entry.getKey() != null && !entry.getKey().isBlank() && entry.getValue() != null && entry.getValue() > 0)
-                .sorted((left, right) -> compareColorCodes(left.getKey(), right.getKey()))
+                .sorted((left, right) -> palette.compare(left.getKey(), right.getKey()))
                 .map(entry -> new ColorRequirement(entry.getKey(), entry.getValue()))
                 .toList();
     }
@@ -3232,23 +3471,24 @@ public class BeadService {
     }
 
     private void resetOcrServiceUsage() {
-        ocrServicesUsed.set(new LinkedHashSet<>());
+        ocrServicesUsed.set(Collections.synchronizedSet(new LinkedHashSet<>()));
     }
 
-    private void markOcrServiceUsed(String endpoint) {
+    private void markOcrServiceUsed(OcrSession session, String endpoint) {
         if (endpoint == null || endpoint.isBlank()) {
             return;
         }
-        LinkedHashSet<String> used = ocrServicesUsed.get();
-        used.add(mapEndpointToDisplayName(endpoint));
+        session.servicesUsed().add(mapEndpointToDisplayName(endpoint));
     }
 
     private String buildOcrServiceSummary() {
-        LinkedHashSet<String> used = ocrServicesUsed.get();
-        if (used == null || used.isEmpty()) {
-            return "未调用OCR服务";
+        Set<String> used = ocrServicesUsed.get();
+        synchronized (used) {
+            if (used.isEmpty()) {
+                return "未调用OCR服务";
+            }
+            return String.join(" → ", used);
         }
-        return String.join(" → ", used);
     }
 
     private GridAnalysisResult withOcrServiceSummary(GridAnalysisResult result) {
@@ -3363,7 +3603,7 @@ public class BeadService {
         }
 
         return codeQuantity.entrySet().stream()
-            .sorted((left, right) -> compareColorCodes(left.getKey(), right.getKey()))
+            .sorted((left, right) -> palette.compare(left.getKey(), right.getKey()))
                 .map(entry -> new ColorRequirement(entry.getKey(), entry.getValue()))
                 .toList();
     }
@@ -3474,7 +3714,7 @@ public class BeadService {
         }
 
         return codeQuantity.entrySet().stream()
-                .sorted((left, right) -> compareColorCodes(left.getKey(), right.getKey()))
+                .sorted((left, right) -> palette.compare(left.getKey(), right.getKey()))
                 .map(entry -> new ColorRequirement(entry.getKey(), entry.getValue()))
                 .toList();
     }
@@ -3592,26 +3832,6 @@ public class BeadService {
         }
     }
 
-    private int compareColorCodes(String leftCode, String rightCode) {
-        String left = normalizeColorCode(leftCode);
-        String right = normalizeColorCode(rightCode);
-        Pattern codePattern = Pattern.compile("^([A-Z]+)(\\d+)$");
-        Matcher leftMatcher = codePattern.matcher(left);
-        Matcher rightMatcher = codePattern.matcher(right);
-
-        if (leftMatcher.matches() && rightMatcher.matches()) {
-            int letterCompare = leftMatcher.group(1).compareTo(rightMatcher.group(1));
-            if (letterCompare != 0) {
-                return letterCompare;
-            }
-            int leftNumber = Integer.parseInt(leftMatcher.group(2));
-            int rightNumber = Integer.parseInt(rightMatcher.group(2));
-            return Integer.compare(leftNumber, rightNumber);
-        }
-
-        return left.compareTo(right);
-    }
-
     private String resolvePairingStrategy(List<String> logs) {
         if (logs == null || logs.isEmpty()) {
             return "unknown";
@@ -3767,7 +3987,7 @@ public class BeadService {
         }
 
         String normalized = normalizedBuilder.toString();
-        return normalizeColorCode(normalized);
+        return palette.normalize(normalized);
     }
 
     private int inferLetterDigitSplit(String token) {
@@ -3844,7 +4064,7 @@ public class BeadService {
             if (color == null) {
                 continue;
             }
-            String code = normalizeColorCode(color.getCode());
+            String code = palette.normalize(color.getCode());
             if (code.isBlank()) {
                 continue;
             }
@@ -3862,37 +4082,24 @@ public class BeadService {
         return normalized;
     }
 
-    private String normalizeColorCode(String code) {
-        if (code == null) {
-            return "";
-        }
-        String upper = code.trim().toUpperCase();
-        if (upper.isBlank()) {
-            return "";
-        }
-        Matcher matcher = Pattern.compile("^([A-Z]+)(\\d+)$").matcher(upper);
-        if (!matcher.matches()) {
-            return upper;
-        }
-        String prefix = matcher.group(1);
-        String number = matcher.group(2).replaceFirst("^0+(?=\\d)", "");
-        return prefix + number;
-    }
-
     private record OcrWordBox(String words, int left, int top, int width, int height) {}
     private record TokenHit(String code, double centerX, double centerY) {}
-    private record CodeHit(int count, double minDistance) {}
     private record OcrLine(String text) {}
-    private record KeyPair(String ak, String sk) {}
+    private record KeyPair(String ak, String sk, int weight) {}
+    private record OcrSession(Set<String> servicesUsed, OcrDeadline deadline) {}
+    private record OcrEndpoint(String endpoint, String serviceName) {}
+    private record OcrAttempt<T>(T value, Throwable error) {}
+    private record GridTile(int index, DecodedImage image, int rowOffset, int colOffset, int rows, int cols, int width, int height) {}
+    private record ColorTile(int index, String name, DecodedImage image, int width, int height) {}
+    private record ColorTileResult(OcrAttempt<List<ColorRequirement>> byLocation, OcrAttempt<List<ColorRequirement>> byText) {}
     private record GridGeometry(int width, int height, int[] xBoundaries, int[] yBoundaries) {}
-    private record PreparedGridImage(String base64, GridGeometry geometry, boolean preprocessed) {}
+    private record PreparedGridImage(DecodedImage image, GridGeometry geometry, boolean preprocessed) {}
     private record PointD(double x, double y) {}
     private record Line(double a, double b, double c) {}
     private record EdgeQuadrilateral(PointD topLeft, PointD topRight, PointD bottomRight, PointD bottomLeft) {}
     private record PerspectiveCorrectionResult(BufferedImage correctedImage, boolean corrected) {}
     private record RgbColor(int red, int green, int blue) {}
-    private record LabColor(double l, double a, double b) {}
-    private record CellColor(int red, int green, int blue, LabColor lab) {}
+    private record CandidateMatcher(List<String> codes, PaletteMatcher matcher) {}
     private record MissingCellScore(int row, int col, String code, double distance, double confidenceGap) {}
     private record ColorExtractionBundle(List<ColorRequirement> byLocation, List<ColorRequirement> byText, List<String> tileLogs) {}
 }
@@ -0,0 +1,206 @@
+package com.pindou.app.service;
+
+import java.util.Arrays;
+
+final class CellColorSampler {
+    static final int NO_SAMPLE = -1;
+
+    private final int rows;
+    private final int cols;
+    private final int[] xCuts;
+    private final int[] yCuts;
+    private final int[][] cellRects;
+    private final long[] redTable;
+    private final long[] greenTable;
+    private final long[] blueTable;
+    private final long[] countTable;
+
+    private CellColorSampler(int rows, int cols, int[] xCuts, int[] yCuts, int[][] cellRects) {
+        this.rows = rows;
+        this.cols = cols;
+        this.xCuts = xCuts;
+        this.yCuts = yCuts;
+        this.cellRects = cellRects;
+        int size = xCuts.length * yCuts.length;
+        this.redTable = new long[size];
+        this.greenTable = new long[size];
+        this.blueTable = new long[size];
+        this.countTable = new long[size];
+    }
+
+    static CellColorSampler build(ImageKernels.RgbPixels pixels, int rows, int cols) {
+        int width = pixels.width();
+        int height = pixels.height();
+        int[][] xRanges = cellRanges(cols, width);
+        int[][] yRanges = cellRanges(rows, height);
+        boolean allColsInner = Arrays.stream(xRanges).allMatch(range -> range[1] > range[0]);
+        boolean allRowsInner = Arrays.stream(yRanges).allMatch(range -> range[1] > range[0]);
+
+        int[][] cellRects = new int[rows * cols][];
+        int[] xCutBuffer = new int[cols * 4];
+        int[] yCutBuffer = new int[rows * 4];
+        int xCutCount = 0;
+        int yCutCount = 0;
+        for (int col = 0; col < cols; col++) {
+            int[] range = xRanges[col];
+            if (range[1] > range[0] && allRowsInner) {
+                xCutBuffer[xCutCount++] = range[0];
+                xCutBuffer[xCutCount++] = range[1];
+            } else {
+                xCutBuffer[xCutCount++] = range[2];
+                xCutBuffer[xCutCount++] = range[3];
+                if (range[1] > range[0]) {
+                    xCutBuffer[xCutCount++] = range[0];
+                    xCutBuffer[xCutCount++] = range[1];
+                }
+            }
+        }
+        for (int row = 0; row < rows; row++) {
+            int[] range = yRanges[row];
+            if (range[1] > range[0] && allColsInner) {
+                yCutBuffer[yCutCount++] = range[0];
+                yCutBuffer[yCutCount++] = range[1];
+            } else {
+                yCutBuffer[yCutCount++] = range[2];
+                yCutBuffer[yCutCount++] = range[3];
+                if (range[1] > range[0]) {
+                    yCutBuffer[yCutCount++] = range[0];
+                    yCutBuffer[yCutCount++] = range[1];
+                }
+            }
+        }
+        int[] xCuts = sortedUnique(xCutBuffer, xCutCount);
+        int[] yCuts = sortedUnique(yCutBuffer, yCutCount);
+
+        boolean[] xBandUsed = new boolean[xCuts.length];
+        boolean[] yBandUsed = new boolean[yCuts.length];
+        for (int row = 0; row < rows; row++) {
+            int[] yRange = yRanges[row];
+            for (int col = 0; col < cols; col++) {
+                int[] xRange = xRanges[col];
+                int[] rect;
+                if (xRange[1] > xRange[0] && yRange[1] > yRange[0]) {
+                    rect = new int[]{xRange[0], xRange[1], yRange[0], yRange[1]};
+                } else if (xRange[3] > xRange[2] && yRange[3] > yRange[2]) {
+                    rect = new int[]{xRange[2], xRange[3], yRange[2], yRange[3]};
+                } else {
+                    continue;
+                }
+                cellRects[row * cols + col] = rect;
+                markBands(xBandUsed, xCuts, rect[0], rect[1]);
+                markBands(yBandUsed, yCuts, rect[2], rect[3]);
+            }
+        }
+
+        CellColorSampler sampler = new CellColorSampler(rows, cols, xCuts, yCuts, cellRects);
+        sampler.accumulate(pixels, xBandUsed, yBandUsed);
+        return sampler;
+    }
+
+    int meanRgb(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            return NO_SAMPLE;
+        }
+        int[] rect = cellRects[row * cols + col];
+        if (rect == null) {
+            return NO_SAMPLE;
+        }
+        int x0 = Arrays.binarySearch(xCuts, rect[0]);
+        int x1 = Arrays.binarySearch(xCuts, rect[1]);
+        int y0 = Arrays.binarySearch(yCuts, rect[2]);
+        int y1 = Arrays.binarySearch(yCuts, rect[3]);
+        long count = rectSum(countTable, x0, x1, y0, y1);
+        if (count <= 0) {
+            return NO_SAMPLE;
+        }
+        int red = (int) Math.round(rectSum(redTable, x0, x1, y0, y1) / (double) count);
+        int green = (int) Math.round(rectSum(greenTable, x0, x1, y0, y1) / (double) count);
+        int blue = (int) Math.round(rectSum(blueTable, x0, x1, y0, y1) / (double) count);
+        return (red << 16) | (green << 8) | blue;
+    }
+
+    private void accumulate(ImageKernels.RgbPixels pixels, boolean[] xBandUsed, boolean[] yBandUsed) {
+        int stride = xCuts.length;
+        int[] data = pixels.data();
+        long[] sums = new long[4];
+        for (int yBand = 0; yBand < yCuts.length - 1; yBand++) {
+            if (!yBandUsed[yBand]) {
+                continue;
+            }
+            int tableRow = (yBand + 1) * stride;
+            for (int y = yCuts[yBand]; y < yCuts[yBand + 1]; y++) {
+                int rowOffset = pixels.offset() + y * pixels.stride();
+                for (int xBand = 0; xBand < stride - 1; xBand++) {
+                    if (!xBandUsed[xBand]) {
+                        continue;
+                    }
+                    sums[0] = 0;
+                    sums[1] = 0;
+                    sums[2] = 0;
+                    sums[3] = 0;
+                    ImageKernels.accumulateNonDark(data, rowOffset + xCuts[xBand], rowOffset + xCuts[xBand + 1], sums);
+                    int index = tableRow + xBand + 1;
+                    redTable[index] += sums[0];
+                    greenTable[index] += sums[1];
+                    blueTable[index] += sums[2];
+                    countTable[index] += sums[3];
+                }
+            }
+        }
+        integrate(redTable);
+        integrate(greenTable);
+        integrate(blueTable);
+        integrate(countTable);
+    }
+
+    private void integrate(long[] table) {
+        int stride = xCuts.length;
+        for (int y = 1; y < yCuts.length; y++) {
+            long rowSum = 0;
+            int row = y * stride;
+            for (int x = 1; x < stride; x++) {
+                rowSum += table[row + x];
+                table[row + x] = table[row - stride + x] + rowSum;
+            }
+        }
+    }
+
+    private long rectSum(long[] table, int x0, int x1, int y0, int y1) {
+        int stride = xCuts.length;
+        return table[y1 * stride + x1] - table[y0 * stride + x1] - table[y1 * stride + x0] + table[y0 * stride + x0];
+    }
+
+    private static int[][] cellRanges(int count, int size) {
+        int[][] ranges = new int[count][];
+        for (int i = 0; i < count; i++) {
+            int start = (int) Math.floor(i * (double) size / count);
+            int end = (int) Math.ceil((i + 1) * (double) size / count);
+            int margin = Math.max(1, (end - start) / 5);
+            int innerStart = Math.max(0, start + margin);
+            int innerEnd = Math.min(size, end - margin);
+            ranges[i] = new int[]{innerStart, innerEnd, Math.max(0, start), Math.min(size, end)};
+        }
+        return ranges;
+    }
+
+    private static int[] sortedUnique(int[] values, int length) {
+        int[] sorted = Arrays.copyOf(values, length + 1);
+        sorted[length] = 0;
+        Arrays.sort(sorted);
+        int unique = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[unique++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, unique);
+    }
+
+    private static void markBands(boolean[] used, int[] cuts, int start, int end) {
+        int from = Arrays.binarySearch(cuts, start);
+        int to = Arrays.binarySearch(cuts, end);
+        for (int band = from; band < to; band++) {
+            used[band] = true;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.pindou.app.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class ColorPalette {
+    private final String[] codes;
+    private final String[] series;
+    private final int[] rgb;
+    private final int[] ranks;
+    private final Map<String, Integer> ids;
+    private final List<String> orderedCodes;
+
+    public ColorPalette(@Value("${palette.resource:palette/pindou-221.csv}") String resource) {
+        List<String[]> entries = readEntries(resource);
+        int size = entries.size();
+        this.codes = new String[size];
+        this.series = new String[size];
+        this.rgb = new int[size];
+        this.ranks = new int[size];
+        this.ids = new HashMap<>(size * 2);
+
+        for (int id = 0; id < size; id++) {
+            String[] entry = entries.get(id);
+            String code = normalize(entry[0]);
+            int split = letterRunLength(code);
+            if (split == 0 || split == code.length() || ids.putIfAbsent(code, id) != null) {
+                throw new IllegalStateException("色号表存在无效或重复色号: " + entry[0]);
+            }
+            codes[id] = code;
+            series[id] = code.substring(0, split);
+            rgb[id] = parseHex(entry[1], code);
+        }
+
+        Integer[] order = new Integer[size];
+        for (int id = 0; id < size; id++) {
+            order[id] = id;
+        }
+        Arrays.sort(order, (left, right) -> compareStructurally(codes[left], codes[right]));
+        String[] sorted = new String[size];
+        for (int rank = 0; rank < size; rank++) {
+            ranks[order[rank]] = rank;
+            sorted[rank] = codes[order[rank]];
+        }
+        this.orderedCodes = List.of(sorted);
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    public List<String> codes() {
+        return orderedCodes;
+    }
+
+    public int idOf(String code) {
+        Integer id = ids.get(normalize(code));
+        return id == null ? -1 : id;
+    }
+
+    public String code(int id) {
+        return codes[id];
+    }
+
+    public String series(int id) {
+        return series[id];
+    }
+
+    public int rank(int id) {
+        return ranks[id];
+    }
+
+    public int rgb(int id) {
+        return rgb[id];
+    }
+
+    public String hex(int id) {
+        return String.format("#%06X", rgb[id]);
+    }
+
+    public String normalize(String code) {
+        if (code == null) {
+            return "";
+        }
+        String upper = code.trim().toUpperCase();
+        if (upper.isBlank()) {
+            return "";
+        }
+        Integer known = ids.get(upper);
+        if (known != null) {
+            return codes[known];
+        }
+        int split = letterRunLength(upper);
+        if (split == 0 || split == upper.length() || !isDigits(upper, split)) {
+            return upper;
+        }
+        int digitStart = split;
+        while (digitStart < upper.length() - 1 && upper.charAt(digitStart) == '0') {
+            digitStart++;
+        }
+        if (digitStart == split) {
+            return upper;
+        }
+        String normalized = upper.substring(0, split) + upper.substring(digitStart);
+        known = ids.get(normalized);
+        return known == null ? normalized : codes[known];
+    }
+
+    public int compare(String leftCode, String rightCode) {
+        String left = normalize(leftCode);
+        String right = normalize(rightCode);
+        Integer leftId = ids.get(left);
+        Integer rightId = ids.get(right);
+        if (leftId != null && rightId != null) {
+            return Integer.compare(ranks[leftId], ranks[rightId]);
+        }
+        return compareStructurally(left, right);
+    }
+
+    private static int compareStructurally(String left, String right) {
+        int leftSplit = letterRunLength(left);
+        int rightSplit = letterRunLength(right);
+        boolean leftCode = leftSplit > 0 && leftSplit < left.length() && isDigits(left, leftSplit);
+        boolean rightCode = rightSplit > 0 && rightSplit < right.length() && isDigits(right, rightSplit);
+        if (!leftCode || !rightCode) {
+            return left.compareTo(right);
+        }
+
+        int letterCompare = left.substring(0, leftSplit).compareTo(right.substring(0, rightSplit));
+        if (letterCompare != 0) {
+            return letterCompare;
+        }
+        int leftDigits = skipZeros(left, leftSplit);
+        int rightDigits = skipZeros(right, rightSplit);
+        int lengthCompare = Integer.compare(left.length() - leftDigits, right.length() - rightDigits);
+        if (lengthCompare != 0) {
+            return lengthCompare;
+        }
+        return left.substring(leftDigits).compareTo(right.substring(rightDigits));
+    }
+
+    private static int letterRunLength(String value) {
+        int index = 0;
+        while (index < value.length() && value.charAt(index) >= 'A' && value.charAt(index) <= 'Z') {
+            index++;
+        }
+        return index;
+    }
+
+    private static boolean isDigits(String value, int from) {
+        for (int i = from; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipZeros(String value, int from) {
+        int index = from;
+        while (index < value.length() - 1 && value.charAt(index) == '0') {
+            index++;
+        }
+        return index;
+    }
+
+    private static int parseHex(String hex, String code) {
+        String value = hex == null ? "" : hex.trim();
+        if (value.startsWith("#")) {
+            value = value.substring(1);
+        }
+        if (value.length() != 6) {
+            throw new IllegalStateException("色号 " + code + " 的颜色值无效: " + hex);
+        }
+        try {
+            return Integer.parseInt(value, 16);
+        } catch (NumberFormatException exception) {
+            throw new IllegalStateException("色号 " + code + " 的颜色值无效: " + hex, exception);
+        }
+    }
+
+    private static List<String[]> readEntries(String resource) {
+        InputStream stream = ColorPalette.class.getClassLoader().getResourceAsStream(resource);
+        if (stream == null) {
+            throw new IllegalStateException("未找到色号表: " + resource);
+        }
+        List<String[]> entries = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            String line;
+            boolean header = true;
+            while ((line = reader.readLine()) != null) {
+                if (header) {
+                    header = false;
+                    continue;
+                }
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] parts = line.split(",");
+                if (parts.length < 2) {
+                    throw new IllegalStateException("色号表格式错误: " + line);
+                }
+                entries.add(new String[]{parts[0].trim(), parts[1].trim()});
+            }
+        } catch (IOException exception) {
+            throw new IllegalStateException("读取色号表失败: " + resource, exception);
+        }
+        if (entries.isEmpty()) {
+            throw new IllegalStateException("色号表为空: " + resource);
+        }
+        return entries;
+    }
+}
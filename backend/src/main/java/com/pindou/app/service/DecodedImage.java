@@ -0,0 +1,252 @@
+package com.pindou.app.service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.AlphaComposite;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.function.Function;
+
+final class DecodedImage {
+    private String base64;
+    private byte[] bytes;
+    private BufferedImage rgb;
+    private String contentHash;
+    private Dimension sourceSize;
+    private String decoderName = "none";
+    private String decodeError = "";
+    private boolean bytesResolved;
+    private boolean imageResolved;
+    private final Function<BufferedImage, String> encoder;
+
+    private DecodedImage(String base64, BufferedImage rgb, Function<BufferedImage, String> encoder) {
+        this.base64 = base64;
+        this.rgb = rgb;
+        this.imageResolved = rgb != null;
+        this.encoder = encoder;
+    }
+
+    static DecodedImage ofBase64(String base64) {
+        return new DecodedImage(base64, null, null);
+    }
+
+    static DecodedImage ofBytes(byte[] bytes) {
+        DecodedImage image = new DecodedImage(null, null, null);
+        image.bytes = bytes;
+        image.bytesResolved = true;
+        image.decoderName = "binary";
+        return image;
+    }
+
+    static DecodedImage ofRaster(BufferedImage image, Function<BufferedImage, String> encoder) {
+        return new DecodedImage(null, image == null ? null : toRgb(image), encoder);
+    }
+
+    static DecodedImage of(String base64, BufferedImage image) {
+        return new DecodedImage(base64, image == null ? null : toRgb(image), null);
+    }
+
+    DecodedImage region(int x, int y, int width, int height, Function<BufferedImage, String> encoder) {
+        BufferedImage image = rgb();
+        if (image == null) {
+            return null;
+        }
+        return new DecodedImage(null, image.getSubimage(x, y, width, height), encoder);
+    }
+
+    synchronized Dimension sourceSize() {
+        if (imageResolved) {
+            return rgb == null ? null : new Dimension(rgb.getWidth(), rgb.getHeight());
+        }
+        if (sourceSize == null) {
+            byte[] decoded = bytes();
+            if (decoded == null || decoded.length == 0) {
+                return null;
+            }
+            try (ImageInputStream stream = new MemoryCacheImageInputStream(new ByteArrayInputStream(decoded))) {
+                ImageReader reader = openReader(stream);
+                if (reader == null) {
+                    return rgb() == null ? null : new Dimension(rgb.getWidth(), rgb.getHeight());
+                }
+                try {
+                    sourceSize = new Dimension(reader.getWidth(0), reader.getHeight(0));
+                } finally {
+                    reader.dispose();
+                }
+            } catch (IOException | RuntimeException exception) {
+                return rgb() == null ? null : new Dimension(rgb.getWidth(), rgb.getHeight());
+            }
+        }
+        return sourceSize;
+    }
+
+    DecodedImage decodeRegion(int x, int y, int width, int height, int maxSide, Function<BufferedImage, String> encoder) {
+        synchronized (this) {
+            if (imageResolved) {
+                return region(x, y, width, height, encoder);
+            }
+        }
+        byte[] decoded = bytes();
+        if (decoded == null || decoded.length == 0) {
+            return null;
+        }
+        int subsampling = maxSide > 0 ? Math.max(1, (Math.max(width, height) + maxSide - 1) / maxSide) : 1;
+        try (ImageInputStream stream = new MemoryCacheImageInputStream(new ByteArrayInputStream(decoded))) {
+            ImageReader reader = openReader(stream);
+            if (reader != null) {
+                try {
+                    ImageReadParam param = reader.getDefaultReadParam();
+                    param.setSourceRegion(new Rectangle(x, y, width, height));
+                    if (subsampling > 1) {
+                        param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                    }
+                    BufferedImage image = reader.read(0, param);
+                    if (image != null) {
+                        return new DecodedImage(null, toRgb(image), encoder);
+                    }
+                } finally {
+                    reader.dispose();
+                }
+            }
+        } catch (IOException | RuntimeException exception) {
+            synchronized (this) {
+                decodeError = decodeError + " | region=" + exception.getClass().getSimpleName() + ":" + exception.getMessage();
+            }
+        }
+        return region(x, y, width, height, encoder);
+    }
+
+    synchronized String base64() {
+        if (base64 == null && rgb != null && encoder != null) {
+            base64 = encoder.apply(rgb);
+        }
+        if (base64 == null && bytesResolved && bytes != null) {
+            base64 = Base64.getEncoder().encodeToString(bytes);
+        }
+        return base64;
+    }
+
+    synchronized boolean hasBase64Payload() {
+        return base64 != null;
+    }
+
+    synchronized byte[] bytes() {
+        if (!bytesResolved) {
+            bytesResolved = true;
+            String payload = base64();
+            if (payload != null && !payload.isBlank()) {
+                try {
+                    bytes = Base64.getDecoder().decode(payload);
+                    decoderName = "std";
+                } catch (IllegalArgumentException decodeException) {
+                    decodeError = decodeException.getClass().getSimpleName() + ":" + decodeException.getMessage();
+                    try {
+                        bytes = Base64.getMimeDecoder().decode(payload);
+                        decoderName = "mime";
+                    } catch (IllegalArgumentException mimeException) {
+                        decodeError = decodeError + " | mime=" + mimeException.getClass().getSimpleName() + ":" + mimeException.getMessage();
+                    }
+                }
+            }
+        }
+        return bytes;
+    }
+
+    synchronized BufferedImage rgb() {
+        if (!imageResolved) {
+            imageResolved = true;
+            byte[] decoded = bytes();
+            if (decoded != null && decoded.length > 0) {
+                try {
+                    BufferedImage image = ImageIO.read(new ByteArrayInputStream(decoded));
+                    rgb = image == null ? null : toRgb(image);
+                } catch (Exception exception) {
+                    decodeError = decodeError + " | imageio=" + exception.getClass().getSimpleName() + ":" + exception.getMessage();
+                }
+            }
+        }
+        return rgb;
+    }
+
+    boolean isRasterBacked() {
+        return encoder != null;
+    }
+
+    boolean isReadable() {
+        BufferedImage image = rgb();
+        return image != null && image.getWidth() > 0 && image.getHeight() > 0;
+    }
+
+    int width() {
+        BufferedImage image = rgb();
+        return image == null ? 0 : image.getWidth();
+    }
+
+    int height() {
+        BufferedImage image = rgb();
+        return image == null ? 0 : image.getHeight();
+    }
+
+    synchronized String contentHash() {
+        if (contentHash == null) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                byte[] decoded = bytes();
+                if (decoded != null) {
+                    digest.update(decoded);
+                } else {
+                    String payload = base64();
+                    digest.update((payload == null ? "" : payload).getBytes(StandardCharsets.US_ASCII));
+                }
+                contentHash = HexFormat.of().formatHex(digest.digest());
+            } catch (Exception exception) {
+                throw new IllegalStateException("计算图片摘要失败: " + exception.getMessage(), exception);
+            }
+        }
+        return contentHash;
+    }
+
+    synchronized String decoderName() {
+        bytes();
+        return decoderName;
+    }
+
+    synchronized String decodeError() {
+        rgb();
+        return decodeError;
+    }
+
+    private static ImageReader openReader(ImageInputStream stream) {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+        if (!readers.hasNext()) {
+            return null;
+        }
+        ImageReader reader = readers.next();
+        reader.setInput(stream, true, true);
+        return reader;
+    }
+
+    static BufferedImage toRgb(BufferedImage input) {
+        if (input.getType() == BufferedImage.TYPE_INT_RGB) {
+            return input;
+        }
+        BufferedImage rgb = new BufferedImage(input.getWidth(), input.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        graphics.setComposite(AlphaComposite.Src);
+        graphics.drawImage(input, 0, 0, null);
+        graphics.dispose();
+        return rgb;
+    }
+}
@@ -0,0 +1,37 @@
+package com.pindou.app.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class GridCpuPool implements Executor {
+    private final int threads;
+    private final ExecutorService executor;
+
+    public GridCpuPool(@Value("${grid.cpu-threads:0}") int threads) {
+        if (threads < 0) {
+            throw new IllegalArgumentException("grid.cpu-threads 不能小于 0");
+        }
+        this.threads = threads == 0 ? Math.max(1, Runtime.getRuntime().availableProcessors()) : threads;
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.threads, runnable -> {
+            Thread thread = new Thread(runnable, "grid-cpu-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int threads() {
+        return threads;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(command);
+    }
+}
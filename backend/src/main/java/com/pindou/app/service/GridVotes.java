@@ -0,0 +1,112 @@
+package com.pindou.app.service;
+
+import com.pindou.app.model.GridAnalysisCell;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+final class GridVotes {
+    private static final int NONE = -1;
+
+    private final int rows;
+    private final int cols;
+    private final int[] heads;
+    private final Map<String, Integer> codeIds = new HashMap<>();
+    private final List<String> codes = new ArrayList<>();
+    private int[] slotCode;
+    private int[] slotCount;
+    private double[] slotDistance;
+    private int[] slotNext;
+    private int slots;
+
+    GridVotes(int rows, int cols) {
+        this.rows = Math.max(0, rows);
+        this.cols = Math.max(0, cols);
+        this.heads = new int[this.rows * this.cols];
+        Arrays.fill(heads, NONE);
+        int capacity = Math.max(16, heads.length);
+        this.slotCode = new int[capacity];
+        this.slotCount = new int[capacity];
+        this.slotDistance = new double[capacity];
+        this.slotNext = new int[capacity];
+    }
+
+    private int internCode(String code) {
+        Integer existing = codeIds.get(code);
+        if (existing != null) {
+            return existing;
+        }
+        int id = codes.size();
+        codes.add(code);
+        codeIds.put(code, id);
+        return id;
+    }
+
+    synchronized void vote(int row, int col, String code, double distance) {
+        vote(row, col, internCode(code), distance);
+    }
+
+    private void vote(int row, int col, int codeId, double distance) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            return;
+        }
+        int cell = row * cols + col;
+        for (int slot = heads[cell]; slot != NONE; slot = slotNext[slot]) {
+            if (slotCode[slot] == codeId) {
+                slotCount[slot]++;
+                if (distance < slotDistance[slot]) {
+                    slotDistance[slot] = distance;
+                }
+                return;
+            }
+        }
+        if (slots == slotCode.length) {
+            grow();
+        }
+        int slot = slots++;
+        slotCode[slot] = codeId;
+        slotCount[slot] = 1;
+        slotDistance[slot] = distance;
+        slotNext[slot] = heads[cell];
+        heads[cell] = slot;
+    }
+
+    synchronized List<GridAnalysisCell> winners(Comparator<String> codeOrder) {
+        List<GridAnalysisCell> cells = new ArrayList<>();
+        for (int cell = 0; cell < heads.length; cell++) {
+            int best = NONE;
+            for (int slot = heads[cell]; slot != NONE; slot = slotNext[slot]) {
+                if (best == NONE || beats(slot, best, codeOrder)) {
+                    best = slot;
+                }
+            }
+            if (best != NONE) {
+                cells.add(new GridAnalysisCell(cell / cols, cell % cols, codes.get(slotCode[best])));
+            }
+        }
+        return cells;
+    }
+
+    private boolean beats(int slot, int best, Comparator<String> codeOrder) {
+        if (slotCount[slot] != slotCount[best]) {
+            return slotCount[slot] > slotCount[best];
+        }
+        int distanceCompare = Double.compare(slotDistance[slot], slotDistance[best]);
+        if (distanceCompare != 0) {
+            return distanceCompare < 0;
+        }
+        return codeOrder.compare(codes.get(slotCode[slot]), codes.get(slotCode[best])) < 0;
+    }
+
+    private void grow() {
+        int capacity = slotCode.length * 2;
+        slotCode = Arrays.copyOf(slotCode, capacity);
+        slotCount = Arrays.copyOf(slotCount, capacity);
+        slotDistance = Arrays.copyOf(slotDistance, capacity);
+        slotNext = Arrays.copyOf(slotNext, capacity);
+    }
+}
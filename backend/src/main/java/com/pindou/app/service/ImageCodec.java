@@ -0,0 +1,104 @@
+package com.pindou.app.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+@Component
+public class ImageCodec {
+    private final float pngCompressionQuality;
+    private final float jpegQuality;
+    private final BlockingQueue<ImageWriter> pngWriters;
+    private final BlockingQueue<ImageWriter> jpegWriters;
+
+    public ImageCodec(
+            @Value("${image.codec.png-deflate-level:4}") int pngDeflateLevel,
+            @Value("${image.codec.jpeg-quality:0.75}") float jpegQuality,
+            @Value("${image.codec.writer-pool-size:4}") int writerPoolSize
+    ) {
+        if (pngDeflateLevel < 0 || pngDeflateLevel > 9) {
+            throw new IllegalArgumentException("image.codec.png-deflate-level 必须在 0-9 之间");
+        }
+        if (jpegQuality <= 0f || jpegQuality > 1f) {
+            throw new IllegalArgumentException("image.codec.jpeg-quality 必须在 (0, 1] 之间");
+        }
+        this.pngCompressionQuality = (9 - pngDeflateLevel) / 9f;
+        this.jpegQuality = jpegQuality;
+        int poolSize = Math.max(1, writerPoolSize);
+        this.pngWriters = new ArrayBlockingQueue<>(poolSize);
+        this.jpegWriters = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    public String encodePngBase64(BufferedImage image) {
+        return encodeBase64(image, "png", pngWriters, pngCompressionQuality);
+    }
+
+    public String encodeJpegBase64(BufferedImage image) {
+        return encodeBase64(DecodedImage.toRgb(image), "jpeg", jpegWriters, jpegQuality);
+    }
+
+    private String encodeBase64(BufferedImage image, String format, BlockingQueue<ImageWriter> pool, float quality) {
+        if (image == null) {
+            throw new IllegalArgumentException("待编码图片为空");
+        }
+        ImageWriter writer = borrowWriter(format, pool);
+        boolean reusable = false;
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+            try (OutputStream base64Stream = Base64.getEncoder().wrap(buffer)) {
+                try (ImageOutputStream imageStream = new MemoryCacheImageOutputStream(base64Stream)) {
+                    ImageWriteParam param = writer.getDefaultWriteParam();
+                    if (param.canWriteCompressed()) {
+                        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                        param.setCompressionQuality(quality);
+                    }
+                    writer.setOutput(imageStream);
+                    writer.write(null, new IIOImage(image, null, null), param);
+                }
+            }
+            reusable = true;
+            return buffer.toString(StandardCharsets.US_ASCII);
+        } catch (IOException exception) {
+            throw new IllegalStateException("图片编码失败(" + format + "): " + exception.getMessage(), exception);
+        } finally {
+            releaseWriter(writer, pool, reusable);
+        }
+    }
+
+    private ImageWriter borrowWriter(String format, BlockingQueue<ImageWriter> pool) {
+        ImageWriter writer = pool.poll();
+        if (writer != null) {
+            return writer;
+        }
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+        if (!writers.hasNext()) {
+            throw new IllegalStateException("当前环境不支持图片格式: " + format);
+        }
+        return writers.next();
+    }
+
+    private void releaseWriter(ImageWriter writer, BlockingQueue<ImageWriter> pool, boolean reusable) {
+        if (reusable) {
+            writer.reset();
+            if (pool.offer(writer)) {
+                return;
+            }
+        }
+        writer.dispose();
+    }
+}
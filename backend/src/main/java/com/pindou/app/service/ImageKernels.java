@@ -0,0 +1,306 @@
+package com.pindou.app.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+
+final class ImageKernels {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImageKernels.class);
+    private static final boolean VECTORIZED = detectVectorSupport();
+    private static final int[] GRAY_READ_LUT = new int[256];
+    private static final byte[] GRAY_WRITE_LUT = new byte[256];
+
+    static {
+        BufferedImage probe = new BufferedImage(256, 1, BufferedImage.TYPE_BYTE_GRAY);
+        byte[] samples = ((DataBufferByte) probe.getRaster().getDataBuffer()).getData();
+        for (int i = 0; i < 256; i++) {
+            samples[i] = (byte) i;
+        }
+        for (int i = 0; i < 256; i++) {
+            GRAY_READ_LUT[i] = probe.getRGB(i, 0) & 0xFF;
+        }
+        for (int i = 0; i < 256; i++) {
+            probe.setRGB(i, 0, (i << 16) | (i << 8) | i);
+        }
+        System.arraycopy(samples, 0, GRAY_WRITE_LUT, 0, 256);
+    }
+
+    private ImageKernels() {
+    }
+
+    private static boolean detectVectorSupport() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            LOGGER.info("图像像素内核使用标量实现 (未加载 jdk.incubator.vector 模块)");
+            return false;
+        }
+        try {
+            if (VectorPixelKernels.isUsable()) {
+                LOGGER.info("图像像素内核使用 Vector API 实现 species={}", VectorPixelKernels.describe());
+                return true;
+            }
+        } catch (LinkageError | RuntimeException exception) {
+            LOGGER.warn("Vector API 初始化失败，回退标量实现: {}", exception.getMessage());
+            return false;
+        }
+        LOGGER.info("图像像素内核使用标量实现 (当前 CPU 向量宽度不足)");
+        return false;
+    }
+
+    static RgbPixels rgbPixels(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        WritableRaster raster = image.getRaster();
+        if (image.getType() == BufferedImage.TYPE_INT_RGB
+                && raster.getDataBuffer() instanceof DataBufferInt dataBuffer
+                && raster.getSampleModel() instanceof SinglePixelPackedSampleModel sampleModel) {
+            int stride = sampleModel.getScanlineStride();
+            int offset = dataBuffer.getOffset()
+                    - raster.getSampleModelTranslateY() * stride
+                    - raster.getSampleModelTranslateX();
+            return new RgbPixels(dataBuffer.getData(), offset, stride, width, height);
+        }
+        int[] data = image.getRGB(0, 0, width, height, null, 0, width);
+        return new RgbPixels(data, 0, width, width, height);
+    }
+
+    static GrayPlane grayscale(BufferedImage image) {
+        RgbPixels pixels = rgbPixels(image);
+        int width = pixels.width();
+        int height = pixels.height();
+        byte[] values = new byte[width * height];
+        int[] histogram = new int[256];
+        int[] data = pixels.data();
+        int[] raw = new int[width];
+        for (int y = 0; y < height; y++) {
+            int source = pixels.offset() + y * pixels.stride();
+            if (VECTORIZED) {
+                VectorPixelKernels.grayRaw(data, source, width, raw);
+            } else {
+                grayRawScalar(data, source, width, raw);
+            }
+            int target = y * width;
+            for (int x = 0; x < width; x++) {
+                int lum = GRAY_READ_LUT[raw[x]];
+                values[target + x] = (byte) lum;
+                histogram[lum]++;
+            }
+        }
+        return new GrayPlane(values, width, height, histogram);
+    }
+
+    static void grayRawScalar(int[] data, int from, int width, int[] raw) {
+        for (int x = 0; x < width; x++) {
+            int rgb = data[from + x];
+            raw[x] = (77 * ((rgb >> 16) & 0xFF) + 150 * ((rgb >> 8) & 0xFF) + 29 * (rgb & 0xFF) + 128) >> 8;
+        }
+    }
+
+    static int otsuThreshold(GrayPlane plane) {
+        int[] histogram = plane.histogram();
+        int total = plane.width() * plane.height();
+
+        double sum = 0;
+        for (int i = 0; i < 256; i++) {
+            sum += i * histogram[i];
+        }
+
+        double sumBackground = 0;
+        int weightBackground = 0;
+        double maxVariance = -1;
+        int threshold = 128;
+
+        for (int i = 0; i < 256; i++) {
+            weightBackground += histogram[i];
+            if (weightBackground == 0) {
+                continue;
+            }
+            int weightForeground = total - weightBackground;
+            if (weightForeground == 0) {
+                break;
+            }
+
+            sumBackground += (double) i * histogram[i];
+            double meanBackground = sumBackground / weightBackground;
+            double meanForeground = (sum - sumBackground) / weightForeground;
+            double variance = (double) weightBackground * weightForeground * Math.pow(meanBackground - meanForeground, 2);
+
+            if (variance > maxVariance) {
+                maxVariance = variance;
+                threshold = i;
+            }
+        }
+
+        return threshold;
+    }
+
+    static BinaryMask binarize(GrayPlane plane, int threshold, boolean darkText) {
+        byte[] values = plane.values();
+        byte[] mask = new byte[values.length];
+        threshold(values, mask, threshold, darkText, (byte) 1, (byte) 0);
+        return new BinaryMask(mask, plane.width(), plane.height(), threshold);
+    }
+
+    static BinaryMask otsuMask(BufferedImage image, boolean darkText) {
+        GrayPlane plane = grayscale(image);
+        return binarize(plane, otsuThreshold(plane), darkText);
+    }
+
+    static BufferedImage toContrastImage(GrayPlane plane, double factor) {
+        byte[] mapping = new byte[256];
+        for (int lum = 0; lum < 256; lum++) {
+            int enhanced = (int) Math.round((lum - 128) * factor + 128);
+            int clamped = Math.max(0, Math.min(255, enhanced));
+            mapping[lum] = GRAY_WRITE_LUT[clamped];
+        }
+        return mapToGrayImage(plane, mapping);
+    }
+
+    static BufferedImage toBinaryImage(GrayPlane plane, int threshold, boolean darkText) {
+        BufferedImage output = new BufferedImage(plane.width(), plane.height(), BufferedImage.TYPE_BYTE_GRAY);
+        byte[] target = ((DataBufferByte) output.getRaster().getDataBuffer()).getData();
+        threshold(plane.values(), target, threshold, darkText, GRAY_WRITE_LUT[0], GRAY_WRITE_LUT[255]);
+        return output;
+    }
+
+    private static void threshold(byte[] values, byte[] target, int threshold, boolean darkText, byte textValue, byte backgroundValue) {
+        if (VECTORIZED) {
+            VectorPixelKernels.threshold(values, target, threshold, darkText, textValue, backgroundValue);
+        } else {
+            thresholdScalar(values, target, threshold, darkText, textValue, backgroundValue);
+        }
+    }
+
+    static void thresholdScalar(byte[] values, byte[] target, int threshold, boolean darkText, byte textValue, byte backgroundValue) {
+        for (int i = 0; i < values.length; i++) {
+            int lum = values[i] & 0xFF;
+            boolean textPixel = darkText ? lum <= threshold : lum >= threshold;
+            target[i] = textPixel ? textValue : backgroundValue;
+        }
+    }
+
+    static int[] darkProfile(BinaryMask mask, boolean vertical) {
+        int width = mask.width();
+        int height = mask.height();
+        byte[] values = mask.mask();
+        int[] profile = new int[vertical ? width : height];
+        for (int y = 0; y < height; y++) {
+            int row = y * width;
+            if (VECTORIZED) {
+                if (vertical) {
+                    VectorPixelKernels.addRow(values, row, profile);
+                } else {
+                    profile[y] = VectorPixelKernels.countSet(values, row, width);
+                }
+            } else if (vertical) {
+                for (int x = 0; x < width; x++) {
+                    profile[x] += values[row + x];
+                }
+            } else {
+                int dark = 0;
+                for (int x = 0; x < width; x++) {
+                    dark += values[row + x];
+                }
+                profile[y] = dark;
+            }
+        }
+        return profile;
+    }
+
+    static int firstDarkOnRow(BinaryMask mask, int y, boolean fromLeft) {
+        byte[] values = mask.mask();
+        int row = y * mask.width();
+        if (fromLeft) {
+            for (int x = 0; x < mask.width(); x++) {
+                if (values[row + x] != 0) {
+                    return x;
+                }
+            }
+        } else {
+            for (int x = mask.width() - 1; x >= 0; x--) {
+                if (values[row + x] != 0) {
+                    return x;
+                }
+            }
+        }
+        return -1;
+    }
+
+    static int firstDarkOnCol(BinaryMask mask, int x, boolean fromTop) {
+        byte[] values = mask.mask();
+        int width = mask.width();
+        if (fromTop) {
+            for (int y = 0; y < mask.height(); y++) {
+                if (values[y * width + x] != 0) {
+                    return y;
+                }
+            }
+        } else {
+            for (int y = mask.height() - 1; y >= 0; y--) {
+                if (values[y * width + x] != 0) {
+                    return y;
+                }
+            }
+        }
+        return -1;
+    }
+
+    static void accumulateNonDark(int[] data, int from, int to, long[] sums) {
+        if (VECTORIZED) {
+            VectorPixelKernels.accumulateNonDark(data, from, to, sums);
+        } else {
+            accumulateNonDarkScalar(data, from, to, sums);
+        }
+    }
+
+    static void accumulateNonDarkScalar(int[] data, int from, int to, long[] sums) {
+        long sumRed = 0;
+        long sumGreen = 0;
+        long sumBlue = 0;
+        int count = 0;
+        for (int x = from; x < to; x++) {
+            int rgb = data[x];
+            int red = (rgb >> 16) & 0xFF;
+            int green = (rgb >> 8) & 0xFF;
+            int blue = rgb & 0xFF;
+            int max = Math.max(red, Math.max(green, blue));
+            int min = Math.min(red, Math.min(green, blue));
+            int lum = (red * 299 + green * 587 + blue * 114) / 1000;
+            if (lum < 28 && (max - min) < 40) {
+                continue;
+            }
+            sumRed += red;
+            sumGreen += green;
+            sumBlue += blue;
+            count++;
+        }
+        sums[0] += sumRed;
+        sums[1] += sumGreen;
+        sums[2] += sumBlue;
+        sums[3] += count;
+    }
+
+    private static BufferedImage mapToGrayImage(GrayPlane plane, byte[] mapping) {
+        BufferedImage output = new BufferedImage(plane.width(), plane.height(), BufferedImage.TYPE_BYTE_GRAY);
+        byte[] target = ((DataBufferByte) output.getRaster().getDataBuffer()).getData();
+        byte[] values = plane.values();
+        for (int i = 0; i < values.length; i++) {
+            target[i] = mapping[values[i] & 0xFF];
+        }
+        return output;
+    }
+
+    record RgbPixels(int[] data, int offset, int stride, int width, int height) {
+        int rgb(int x, int y) {
+            return data[offset + y * stride + x];
+        }
+    }
+
+    record GrayPlane(byte[] values, int width, int height, int[] histogram) {}
+
+    record BinaryMask(byte[] mask, int width, int height, int threshold) {}
+}
@@ -25,31 +25,19 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 @Service
 public class InventoryService {
-    private static final List<String> CANONICAL_CODES = List.of(
-            "A1", "A2", "A3", "A4", "A5", "A6", "A7", "A8", "A9", "A10", "A11", "A12", "A13", "A14", "A15", "A16", "A17", "A18", "A19", "A20", "A21", "A22", "A23", "A24", "A25", "A26",
-            "B1", "B2", "B3", "B4", "B5", "B6", "B7", "B8", "B9", "B10", "B11", "B12", "B13", "B14", "B15", "B16", "B17", "B18", "B19", "B20", "B21", "B22", "B23", "B24", "B25", "B26", "B27", "B28", "B29", "B30", "B31", "B32",
-            "C1", "C2", "C3", "C4", "C5", "C6", "C7", "C8", "C9", "C10", "C11", "C12", "C13", "C14", "C15", "C16", "C17", "C18", "C19", "C20", "C21", "C22", "C23", "C24", "C25", "C26", "C27", "C28", "C29",
-            "D1", "D2", "D3", "D4", "D5", "D6", "D7", "D8", "D9", "D10", "D11", "D12", "D13", "D14", "D15", "D16", "D17", "D18", "D19", "D20", "D21", "D22", "D23", "D24", "D25", "D26",
-            "E1", "E2", "E3", "E4", "E5", "E6", "E7", "E8", "E9", "E10", "E11", "E12", "E13", "E14", "E15", "E16", "E17", "E18", "E19", "E20", "E21", "E22", "E23", "E24",
-            "F1", "F2", "F3", "F4", "F5", "F6", "F7", "F8", "F9", "F10", "F11", "F12", "F13", "F14", "F15", "F16", "F17", "F18", "F19", "F20", "F21", "F22", "F23", "F24", "F25",
-            "G1", "G2", "G3", "G4", "G5", "G6", "G7", "G8", "G9", "G10", "G11", "G12", "G13", "G14", "G15", "G16", "G17", "G18", "G19", "G20", "G21",
-            "H1", "H2", "H3", "H4", "H5", "H6", "H7", "H8", "H9", "H10", "H11", "H12", "H13", "H14", "H15", "H16", "H17", "H18", "H19", "H20", "H21", "H22", "H23",
-            "M1", "M2", "M3", "M4", "M5", "M6", "M7", "M8", "M9", "M10", "M11", "M12", "M13", "M14", "M15"
-    );
     private static final Set<String> SPECIAL_THRESHOLD_CODES = Set.of("H1", "H2", "H7");
-    private static final Pattern CODE_PATTERN = Pattern.compile("^([A-Z]+)(\\d+)$");
 
     private final InventoryRowRepository inventoryRowRepository;
     private final BeadProjectRepository beadProjectRepository;
+    private final ColorPalette palette;
 
-    public InventoryService(InventoryRowRepository inventoryRowRepository, BeadProjectRepository beadProjectRepository) {
+    public InventoryService(InventoryRowRepository inventoryRowRepository, BeadProjectRepository beadProjectRepository, ColorPalette palette) {
         this.inventoryRowRepository = inventoryRowRepository;
         this.beadProjectRepository = beadProjectRepository;
+        this.palette = palette;
     }
 
     public List<InventoryRow> stock() {
@@ -58,7 +46,7 @@ public class InventoryService {
 
         List<InventoryRow> rows = new ArrayList<>();
         for (InventoryRow persisted : persistedRows) {
-            String code = normalizeCode(persisted.getCode());
+            String code = palette.normalize(persisted.getCode());
             int inTotal = safeInt(persisted.getInTotal());
             int used = usedMap.getOrDefault(code, 0);
             int remain = Math.max(0, inTotal - used);
@@ -73,8 +61,8 @@ public class InventoryService {
     }
 
     public List<UsageRow> usage() {
-        Map<String, List<UsageProjectItem>> detailMap = new HashMap<>();
-        Map<String, Integer> totalMap = new HashMap<>();
+        int[] totals = new int[palette.size()];
+        List<List<UsageProjectItem>> details = emptyDetails();
 
         for (BeadProject project : beadProjectRepository.findAll()) {
             if (project.getStatus() != BeadStatus.IN_PROGRESS && project.getStatus() != BeadStatus.DONE) {
@@ -87,14 +75,14 @@ public class InventoryService {
             }
 
             for (ColorRequirement color : safeColors(project.getRequiredColors())) {
-                String code = normalizeCode(color.getCode());
-                if (code.isBlank()) {
+                int id = palette.idOf(color.getCode());
+                if (id < 0) {
                     continue;
                 }
 
                 int used = safeInt(color.getQuantity()) * multiplier;
-                totalMap.put(code, totalMap.getOrDefault(code, 0) + used);
-                detailMap.computeIfAbsent(code, key -> new ArrayList<>()).add(
+                totals[id] += used;
+                details.get(id).add(
                         new UsageProjectItem(
                                 project.getId(),
                                 project.getName(),
@@ -107,16 +95,16 @@ public class InventoryService {
         }
 
         List<UsageRow> rows = new ArrayList<>();
-        for (String code : CANONICAL_CODES) {
-            rows.add(new UsageRow(code, totalMap.getOrDefault(code, 0), detailMap.getOrDefault(code, List.of())));
+        for (String code : palette.codes()) {
+            int id = palette.idOf(code);
+            rows.add(new UsageRow(code, totals[id], details.get(id)));
         }
-        rows.sort((a, b) -> compareCodes(a.getCode(), b.getCode()));
         return rows;
     }
 
     public List<DemandRow> demand() {
-        Map<String, List<UsageProjectItem>> detailMap = new HashMap<>();
-        Map<String, Integer> totalMap = new HashMap<>();
+        int[] totals = new int[palette.size()];
+        List<List<UsageProjectItem>> details = emptyDetails();
 
         for (BeadProject project : beadProjectRepository.findAll()) {
             if (project.getStatus() != BeadStatus.TODO) {
@@ -125,14 +113,14 @@ public class InventoryService {
 
             int multiplier = planMultiplier(project);
             for (ColorRequirement color : safeColors(project.getRequiredColors())) {
-                String code = normalizeCode(color.getCode());
-                if (code.isBlank()) {
+                int id = palette.idOf(color.getCode());
+                if (id < 0) {
                     continue;
                 }
 
                 int need = safeInt(color.getQuantity()) * multiplier;
-                totalMap.put(code, totalMap.getOrDefault(code, 0) + need);
-                detailMap.computeIfAbsent(code, key -> new ArrayList<>()).add(
+                totals[id] += need;
+                details.get(id).add(
                         new UsageProjectItem(
                                 project.getId(),
                                 project.getName(),
@@ -144,21 +132,20 @@ public class InventoryService {
             }
         }
 
-        Map<String, InventoryRow> stockMap = new HashMap<>();
+        int[] remains = new int[palette.size()];
         for (InventoryRow row : stock()) {
-            stockMap.put(normalizeCode(row.getCode()), row);
+            int id = palette.idOf(row.getCode());
+            if (id >= 0) {
+                remains[id] = safeInt(row.getRemain());
+            }
         }
 
         List<DemandRow> rows = new ArrayList<>();
-        for (String code : CANONICAL_CODES) {
-            int totalNeed = totalMap.getOrDefault(code, 0);
-            InventoryRow stock = stockMap.get(code);
-            int remain = stock == null ? 0 : safeInt(stock.getRemain());
-            int need = Math.max(0, totalNeed - remain);
-            rows.add(new DemandRow(code, remain, need, detailMap.getOrDefault(code, List.of())));
+        for (String code : palette.codes()) {
+            int id = palette.idOf(code);
+            int need = Math.max(0, totals[id] - remains[id]);
+            rows.add(new DemandRow(code, remains[id], need, details.get(id)));
         }
-
-        rows.sort((a, b) -> compareCodes(a.getCode(), b.getCode()));
         return rows;
     }
 
@@ -172,14 +159,14 @@ public class InventoryService {
             int multiplier = planMultiplier(project);
             List<ColorRequirement> scaledColors = new ArrayList<>();
             for (ColorRequirement color : safeColors(project.getRequiredColors())) {
-                String code = normalizeCode(color.getCode());
+                String code = palette.normalize(color.getCode());
                 if (code.isBlank()) {
                     continue;
                 }
                 int quantity = safeInt(color.getQuantity()) * multiplier;
                 scaledColors.add(new ColorRequirement(code, quantity));
             }
-            scaledColors.sort((a, b) -> compareCodes(a.getCode(), b.getCode()));
+            scaledColors.sort((a, b) -> palette.compare(a.getCode(), b.getCode()));
 
             rows.add(new TodoProjectRow(
                     project.getId(),
@@ -200,7 +187,7 @@ public class InventoryService {
         Map<String, InventoryRow> rowMap = toRowMap(rows);
 
         for (Map.Entry<String, Integer> entry : safeMap(increments).entrySet()) {
-            String code = normalizeCode(entry.getKey());
+            String code = palette.normalize(entry.getKey());
             int add = Math.max(0, safeInt(entry.getValue()));
             if (code.isBlank() || add <= 0) {
                 continue;
@@ -226,7 +213,7 @@ public class InventoryService {
         Map<String, InventoryRow> rowMap = toRowMap(rows);
 
         for (Map.Entry<String, Integer> entry : safeMap(thresholds).entrySet()) {
-            String code = normalizeCode(entry.getKey());
+            String code = palette.normalize(entry.getKey());
             int threshold = Math.max(0, safeInt(entry.getValue()));
             if (code.isBlank()) {
                 continue;
@@ -246,7 +233,7 @@ public class InventoryService {
         Map<String, InventoryRow> rowMap = toRowMap(rows);
 
         for (Map.Entry<String, Integer> entry : safeMap(totals).entrySet()) {
-            String code = normalizeCode(entry.getKey());
+            String code = palette.normalize(entry.getKey());
             int total = Math.max(0, safeInt(entry.getValue()));
             if (code.isBlank()) {
                 continue;
@@ -503,7 +490,7 @@ public class InventoryService {
 
         for (InventoryRow row : existingRows) {
             String rawCode = row.getCode() == null ? "" : row.getCode().trim().toUpperCase();
-            String code = normalizeCode(rawCode);
+            String code = palette.normalize(rawCode);
             if (code.isBlank()) {
                 requiresRewrite = true;
                 continue;
@@ -521,7 +508,7 @@ public class InventoryService {
             }
         }
 
-        LinkedHashSet<String> finalCodes = new LinkedHashSet<>(CANONICAL_CODES);
+        LinkedHashSet<String> finalCodes = new LinkedHashSet<>(palette.codes());
         finalCodes.addAll(inTotalMap.keySet());
 
         List<InventoryRow> normalizedRows = new ArrayList<>();
@@ -538,7 +525,7 @@ public class InventoryService {
         if (!requiresRewrite) {
             Map<String, InventoryRow> existingMap = new HashMap<>();
             for (InventoryRow row : existingRows) {
-                existingMap.put(normalizeCode(row.getCode()), row);
+                existingMap.put(palette.normalize(row.getCode()), row);
             }
             for (InventoryRow normalized : normalizedRows) {
                 InventoryRow existing = existingMap.get(normalized.getCode());
@@ -577,7 +564,7 @@ public class InventoryService {
                 continue;
             }
             for (ColorRequirement color : safeColors(project.getRequiredColors())) {
-                String code = normalizeCode(color.getCode());
+                String code = palette.normalize(color.getCode());
                 if (code.isBlank()) {
                     continue;
                 }
@@ -589,10 +576,18 @@ public class InventoryService {
         return totalMap;
     }
 
+    private List<List<UsageProjectItem>> emptyDetails() {
+        List<List<UsageProjectItem>> details = new ArrayList<>(palette.size());
+        for (int i = 0; i < palette.size(); i++) {
+            details.add(new ArrayList<>());
+        }
+        return details;
+    }
+
     private Map<String, InventoryRow> toRowMap(List<InventoryRow> rows) {
         Map<String, InventoryRow> map = new HashMap<>();
         for (InventoryRow row : rows) {
-            map.put(normalizeCode(row.getCode()), row);
+            map.put(palette.normalize(row.getCode()), row);
         }
         return map;
     }
@@ -617,24 +612,7 @@ public class InventoryService {
     }
 
     private int defaultThreshold(String code) {
-        return SPECIAL_THRESHOLD_CODES.contains(normalizeCode(code)) ? 500 : 200;
-    }
-
-    private String normalizeCode(String code) {
-        if (code == null) {
-            return "";
-        }
-        String upper = code.trim().toUpperCase();
-        if (upper.isBlank()) {
-            return "";
-        }
-        Matcher matcher = CODE_PATTERN.matcher(upper);
-        if (!matcher.matches()) {
-            return upper;
-        }
-        String prefix = matcher.group(1);
-        String number = matcher.group(2).replaceFirst("^0+(?=\\d)", "");
-        return prefix + number;
+        return SPECIAL_THRESHOLD_CODES.contains(palette.normalize(code)) ? 500 : 200;
     }
 
     private List<ColorRequirement> safeColors(List<ColorRequirement> colors) {
@@ -646,28 +624,6 @@ public class InventoryService {
     }
 
     private int compareInventoryRows(InventoryRow left, InventoryRow right) {
-        return compareCodes(left.getCode(), right.getCode());
-    }
-
-    private int compareCodes(String leftCode, String rightCode) {
-        String left = normalizeCode(leftCode);
-        String right = normalizeCode(rightCode);
-
-        Matcher leftMatcher = CODE_PATTERN.matcher(left);
-        Matcher rightMatcher = CODE_PATTERN.matcher(right);
-
-        if (leftMatcher.matches() && rightMatcher.matches()) {
-            String leftGroup = leftMatcher.group(1);
-            String rightGroup = rightMatcher.group(1);
-            int letterCompare = leftGroup.compareTo(rightGroup);
-            if (letterCompare != 0) {
-                return letterCompare;
-            }
-            int leftNumber = Integer.parseInt(leftMatcher.group(2));
-            int rightNumber = Integer.parseInt(rightMatcher.group(2));
-            return Integer.compare(leftNumber, rightNumber);
-        }
-
-        return left.compareTo(right);
+        return palette.compare(left.getCode(), right.getCode());
     }
 }
@@ -0,0 +1,217 @@
+package com.pindou.app.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+public class OcrCredentialPool {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OcrCredentialPool.class);
+
+    private final int failureThreshold;
+    private final long failureEjectionMillis;
+    private final long quotaEjectionMillis;
+    private final long qpsEjectionMillis;
+    private List<Member> members = List.of();
+
+    public OcrCredentialPool(
+            @Value("${baidu.ocr.pool.failure-threshold:3}") int failureThreshold,
+            @Value("${baidu.ocr.pool.failure-ejection-seconds:60}") long failureEjectionSeconds,
+            @Value("${baidu.ocr.pool.quota-ejection-seconds:3600}") long quotaEjectionSeconds,
+            @Value("${baidu.ocr.pool.qps-ejection-millis:1000}") long qpsEjectionMillis
+    ) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.failureEjectionMillis = Math.max(0L, failureEjectionSeconds) * 1000L;
+        this.quotaEjectionMillis = Math.max(0L, quotaEjectionSeconds) * 1000L;
+        this.qpsEjectionMillis = Math.max(0L, qpsEjectionMillis);
+    }
+
+    public static Credential credential(String ak, String sk, int weight) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest((ak + "\n" + sk).getBytes(StandardCharsets.UTF_8));
+            return new Credential(HexFormat.of().formatHex(hash, 0, 6), ak, sk, Math.max(1, weight));
+        } catch (Exception exception) {
+            throw new IllegalStateException("计算 OCR 凭据标识失败: " + exception.getMessage(), exception);
+        }
+    }
+
+    public synchronized void configure(List<Credential> credentials) {
+        Map<String, Member> existing = new HashMap<>();
+        for (Member member : members) {
+            existing.put(member.credential.id(), member);
+        }
+        List<Member> updated = new ArrayList<>();
+        for (Credential credential : credentials) {
+            Member member = existing.get(credential.id());
+            if (member == null || member.credential.weight() != credential.weight()) {
+                Member replacement = new Member(credential);
+                if (member != null) {
+                    replacement.copyHealth(member);
+                }
+                member = replacement;
+            }
+            updated.add(member);
+        }
+        members = List.copyOf(updated);
+    }
+
+    public synchronized boolean isEmpty() {
+        return members.isEmpty();
+    }
+
+    public synchronized int healthyCount() {
+        long now = System.currentTimeMillis();
+        int count = 0;
+        for (Member member : members) {
+            if (member.ejectedUntil <= now) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public synchronized Credential acquire(Set<String> excluded) {
+        long now = System.currentTimeMillis();
+        Member selected = null;
+        int totalWeight = 0;
+        for (Member member : members) {
+            if (excluded.contains(member.credential.id()) || member.ejectedUntil > now) {
+                continue;
+            }
+            member.currentWeight += member.credential.weight();
+            totalWeight += member.credential.weight();
+            if (selected == null || member.currentWeight > selected.currentWeight) {
+                selected = member;
+            }
+        }
+        if (selected == null) {
+            return null;
+        }
+        selected.currentWeight -= totalWeight;
+        selected.dispatched++;
+        return selected.credential;
+    }
+
+    public synchronized String unavailableReason() {
+        long now = System.currentTimeMillis();
+        for (Member member : members) {
+            if (member.ejectedUntil > now && member.lastError != null) {
+                return member.lastError;
+            }
+        }
+        return "无可用凭据";
+    }
+
+    public synchronized void recordSuccess(Credential credential) {
+        Member member = find(credential);
+        if (member != null) {
+            member.successes++;
+            member.consecutiveFailures = 0;
+        }
+    }
+
+    public synchronized void recordFailure(Credential credential, String reason) {
+        Member member = find(credential);
+        if (member == null) {
+            return;
+        }
+        member.failures++;
+        member.consecutiveFailures++;
+        member.lastError = reason;
+        if (member.consecutiveFailures >= failureThreshold) {
+            eject(member, failureEjectionMillis, reason);
+        }
+    }
+
+    public synchronized void recordQuotaExhausted(Credential credential, boolean qpsLimited, String reason) {
+        Member member = find(credential);
+        if (member == null) {
+            return;
+        }
+        member.failures++;
+        member.lastError = reason;
+        eject(member, qpsLimited ? qpsEjectionMillis : quotaEjectionMillis, reason);
+    }
+
+    public synchronized List<Map<String, Object>> snapshot() {
+        long now = System.currentTimeMillis();
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Member member : members) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("credential", member.credential.id());
+            item.put("ak", maskKey(member.credential.ak()));
+            item.put("weight", member.credential.weight());
+            item.put("healthy", member.ejectedUntil <= now);
+            item.put("ejectedForMillis", Math.max(0L, member.ejectedUntil - now));
+            item.put("dispatched", member.dispatched);
+            item.put("successes", member.successes);
+            item.put("failures", member.failures);
+            item.put("ejections", member.ejections);
+            item.put("lastError", member.lastError == null ? "" : member.lastError);
+            result.add(item);
+        }
+        return result;
+    }
+
+    private void eject(Member member, long durationMillis, String reason) {
+        member.ejectedUntil = System.currentTimeMillis() + durationMillis;
+        member.consecutiveFailures = 0;
+        member.ejections++;
+        LOGGER.warn("ocr-credential[{}]: ejected for {}ms. reason={}", member.credential.id(), durationMillis, reason);
+    }
+
+    private Member find(Credential credential) {
+        for (Member member : members) {
+            if (member.credential.id().equals(credential.id())) {
+                return member;
+            }
+        }
+        return null;
+    }
+
+    private static String maskKey(String value) {
+        if (value == null || value.length() <= 4) {
+            return "****";
+        }
+        return value.substring(0, 4) + "****";
+    }
+
+    public record Credential(String id, String ak, String sk, int weight) {}
+
+    private static final class Member {
+        private final Credential credential;
+        private int currentWeight;
+        private long ejectedUntil;
+        private int consecutiveFailures;
+        private long dispatched;
+        private long successes;
+        private long failures;
+        private long ejections;
+        private String lastError;
+
+        private Member(Credential credential) {
+            this.credential = credential;
+        }
+
+        private void copyHealth(Member other) {
+            ejectedUntil = other.ejectedUntil;
+            consecutiveFailures = other.consecutiveFailures;
+            dispatched = other.dispatched;
+            successes = other.successes;
+            failures = other.failures;
+            ejections = other.ejections;
+            lastError = other.lastError;
+        }
+    }
+}
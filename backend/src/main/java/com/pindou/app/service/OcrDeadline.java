@@ -0,0 +1,63 @@
+package com.pindou.app.service;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+public final class OcrDeadline {
+    private static final OcrDeadline NONE = new OcrDeadline(0L, false);
+
+    private final long deadlineNanos;
+    private final boolean bounded;
+    private final CompletableFuture<Void> expiry = new CompletableFuture<>();
+    private final Set<CompletableFuture<?>> bound = ConcurrentHashMap.newKeySet();
+
+    private OcrDeadline(long deadlineNanos, boolean bounded) {
+        this.deadlineNanos = deadlineNanos;
+        this.bounded = bounded;
+    }
+
+    public static OcrDeadline none() {
+        return NONE;
+    }
+
+    public static OcrDeadline after(long timeoutMillis) {
+        if (timeoutMillis <= 0) {
+            return NONE;
+        }
+        OcrDeadline deadline = new OcrDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis), true);
+        deadline.expiry.thenRun(deadline::cancelBound);
+        CompletableFuture.delayedExecutor(timeoutMillis, TimeUnit.MILLISECONDS).execute(() -> deadline.expiry.complete(null));
+        return deadline;
+    }
+
+    public boolean isExpired() {
+        return bounded && (expiry.isDone() || System.nanoTime() >= deadlineNanos);
+    }
+
+    public long remainingMillis() {
+        if (!bounded) {
+            return Long.MAX_VALUE;
+        }
+        return expiry.isDone() ? 0L : Math.max(0L, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    <T> CompletableFuture<T> bind(CompletableFuture<T> future) {
+        if (!bounded || future.isDone()) {
+            return future;
+        }
+        bound.add(future);
+        future.whenComplete((value, error) -> bound.remove(future));
+        if (expiry.isDone()) {
+            future.cancel(true);
+        }
+        return future;
+    }
+
+    private void cancelBound() {
+        for (CompletableFuture<?> future : bound) {
+            future.cancel(true);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.pindou.app.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+final class OcrFanOut<T, R> {
+    private final IntFunction<T> source;
+    private final Function<T, CompletableFuture<R>> dispatch;
+    private final Sink<T, R> sink;
+    private final int window;
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+    private final List<CompletableFuture<R>> inFlight = new ArrayList<>();
+    private int nextIndex;
+    private int launching;
+    private boolean exhausted;
+    private boolean stopped;
+    private RuntimeException failure;
+
+    private OcrFanOut(IntFunction<T> source, int window, Function<T, CompletableFuture<R>> dispatch, Sink<T, R> sink) {
+        this.source = source;
+        this.window = Math.max(1, window);
+        this.dispatch = dispatch;
+        this.sink = sink;
+    }
+
+    static <T, R> CompletableFuture<Void> run(
+            IntFunction<T> source,
+            int window,
+            Function<T, CompletableFuture<R>> dispatch,
+            Sink<T, R> sink
+    ) {
+        OcrFanOut<T, R> fanOut = new OcrFanOut<>(source, window, dispatch, sink);
+        fanOut.done.whenComplete((ignored, error) -> fanOut.cancelInFlight());
+        fanOut.fill();
+        return fanOut.done;
+    }
+
+    static <T, R> CompletableFuture<Void> run(
+            List<T> items,
+            int window,
+            Function<T, CompletableFuture<R>> dispatch,
+            Sink<T, R> sink
+    ) {
+        return run(index -> index < items.size() ? items.get(index) : null, window, dispatch, sink);
+    }
+
+    static Throwable unwrap(Throwable error) {
+        Throwable current = error;
+        while (current instanceof CompletionException && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+
+    private void fill() {
+        while (true) {
+            int index;
+            synchronized (this) {
+                if (stopped || exhausted || launching + inFlight.size() >= window) {
+                    stopIfDrained();
+                    break;
+                }
+                index = nextIndex++;
+                launching++;
+            }
+
+            T item;
+            try {
+                item = source.apply(index);
+            } catch (RuntimeException exception) {
+                synchronized (this) {
+                    launching--;
+                    stop(exception);
+                }
+                break;
+            }
+            if (item == null) {
+                synchronized (this) {
+                    launching--;
+                    exhausted = true;
+                    stopIfDrained();
+                }
+                break;
+            }
+
+            CompletableFuture<R> future;
+            try {
+                future = dispatch.apply(item);
+            } catch (RuntimeException exception) {
+                future = CompletableFuture.failedFuture(exception);
+            }
+            boolean accepted;
+            synchronized (this) {
+                launching--;
+                accepted = !stopped;
+                if (accepted) {
+                    inFlight.add(future);
+                }
+            }
+            if (!accepted) {
+                future.cancel(true);
+                break;
+            }
+            CompletableFuture<R> dispatched = future;
+            future.whenComplete((result, error) -> onComplete(item, dispatched, result, error));
+        }
+        publish();
+    }
+
+    private void onComplete(T item, CompletableFuture<R> future, R result, Throwable error) {
+        synchronized (this) {
+            if (!inFlight.remove(future) || stopped) {
+                return;
+            }
+            try {
+                if (sink.accept(item, result, error == null ? null : unwrap(error))) {
+                    stop(null);
+                }
+            } catch (RuntimeException exception) {
+                stop(exception);
+            }
+        }
+        fill();
+    }
+
+    private void stopIfDrained() {
+        if (!stopped && exhausted && launching == 0 && inFlight.isEmpty()) {
+            stop(null);
+        }
+    }
+
+    private void stop(RuntimeException error) {
+        if (!stopped) {
+            stopped = true;
+            failure = error;
+        }
+    }
+
+    private void publish() {
+        RuntimeException error;
+        synchronized (this) {
+            if (!stopped) {
+                return;
+            }
+            error = failure;
+        }
+        if (error == null) {
+            done.complete(null);
+        } else {
+            done.completeExceptionally(error);
+        }
+    }
+
+    private void cancelInFlight() {
+        List<CompletableFuture<R>> pending;
+        synchronized (this) {
+            stopped = true;
+            pending = new ArrayList<>(inFlight);
+            inFlight.clear();
+        }
+        for (CompletableFuture<R> future : pending) {
+            future.cancel(true);
+        }
+    }
+
+    @FunctionalInterface
+    interface Sink<T, R> {
+        boolean accept(T item, R result, Throwable error);
+    }
+}
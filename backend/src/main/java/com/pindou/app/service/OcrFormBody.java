@@ -0,0 +1,126 @@
+package com.pindou.app.service;
+
+import java.io.InputStream;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+
+final class OcrFormBody {
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BASE64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/"
+            .getBytes(StandardCharsets.US_ASCII);
+    // 一组 3 字节编码为 4 个 base64 字符，每个字符 URL 编码后最多 3 字节
+    private static final int GROUP_CAPACITY = 12;
+
+    private OcrFormBody() {
+    }
+
+    // 直接从原始字节边做 base64 边做 URL 编码，不生成完整的 base64 字符串
+    static HttpRequest.BodyPublisher of(String fieldName, byte[] raw, String trailingParameters) {
+        String prefix = fieldName + "=";
+        long contentLength = prefix.length() + encodedLength(raw) + trailingParameters.length();
+        return HttpRequest.BodyPublishers.fromPublisher(
+                HttpRequest.BodyPublishers.ofInputStream(() -> open(fieldName, raw, trailingParameters)),
+                contentLength
+        );
+    }
+
+    static InputStream open(String fieldName, byte[] raw, String trailingParameters) {
+        return new EncodingStream(fieldName + "=", raw, trailingParameters);
+    }
+
+    static long encodedLength(byte[] raw) {
+        byte[] scratch = new byte[GROUP_CAPACITY];
+        long length = 0;
+        for (int offset = 0; offset < raw.length; offset += 3) {
+            length += encodeGroup(raw, offset, scratch);
+        }
+        return length;
+    }
+
+    private static int encodeGroup(byte[] raw, int offset, byte[] target) {
+        int remaining = Math.min(3, raw.length - offset);
+        int bits = (raw[offset] & 0xFF) << 16;
+        if (remaining > 1) {
+            bits |= (raw[offset + 1] & 0xFF) << 8;
+        }
+        if (remaining > 2) {
+            bits |= raw[offset + 2] & 0xFF;
+        }
+        int written = 0;
+        for (int i = 0; i < 4; i++) {
+            byte c = i <= remaining ? BASE64[(bits >> (18 - 6 * i)) & 0x3F] : (byte) '=';
+            if (c == '+' || c == '/' || c == '=') {
+                target[written++] = '%';
+                target[written++] = HEX[(c >> 4) & 0xF];
+                target[written++] = HEX[c & 0xF];
+            } else {
+                target[written++] = c;
+            }
+        }
+        return written;
+    }
+
+    private static final class EncodingStream extends InputStream {
+        private final String prefix;
+        private final byte[] raw;
+        private final String suffix;
+        private int section;
+        private int position;
+        private final byte[] group = new byte[GROUP_CAPACITY];
+        private int groupLength;
+        private int groupPosition;
+        private final byte[] single = new byte[1];
+
+        private EncodingStream(String prefix, byte[] raw, String suffix) {
+            this.prefix = prefix;
+            this.raw = raw;
+            this.suffix = suffix;
+        }
+
+        @Override
+        public int read() {
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            int written = 0;
+            while (written < length) {
+                if (groupPosition < groupLength) {
+                    int count = Math.min(length - written, groupLength - groupPosition);
+                    System.arraycopy(group, groupPosition, buffer, offset + written, count);
+                    groupPosition += count;
+                    written += count;
+                    continue;
+                }
+                if (section == 0) {
+                    if (position < prefix.length()) {
+                        buffer[offset + written++] = (byte) prefix.charAt(position++);
+                        continue;
+                    }
+                    section = 1;
+                    position = 0;
+                }
+                if (section == 1) {
+                    if (position < raw.length) {
+                        groupLength = encodeGroup(raw, position, group);
+                        groupPosition = 0;
+                        position += 3;
+                        continue;
+                    }
+                    section = 2;
+                    position = 0;
+                }
+                if (position < suffix.length()) {
+                    buffer[offset + written++] = (byte) suffix.charAt(position++);
+                    continue;
+                }
+                break;
+            }
+            return written == 0 ? -1 : written;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.pindou.app.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+final class OcrHedge<R> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OcrHedge.class);
+
+    private final String label;
+    private final List<Leg<R>> legs;
+    private final CompletableFuture<R> result = new CompletableFuture<>();
+    private final List<CompletableFuture<R>> launched = new ArrayList<>();
+    private final Throwable[] errors;
+    private int nextIndex;
+    private int failed;
+
+    private OcrHedge(String label, List<Leg<R>> legs) {
+        this.label = label;
+        this.legs = legs;
+        this.errors = new Throwable[legs.size()];
+    }
+
+    static <R> CompletableFuture<R> race(String label, List<Leg<R>> legs) {
+        if (legs.isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalStateException(label + " 未配置 OCR 端点"));
+        }
+        OcrHedge<R> hedge = new OcrHedge<>(label, legs);
+        hedge.result.whenComplete((ignored, error) -> hedge.cancelLaunched());
+        hedge.launchNext(-1);
+        return hedge.result;
+    }
+
+    private void launchNext(int expectedIndex) {
+        int index;
+        synchronized (this) {
+            if (result.isDone() || nextIndex >= legs.size()) {
+                return;
+            }
+            if (expectedIndex >= 0 && nextIndex != expectedIndex) {
+                return;
+            }
+            index = nextIndex++;
+        }
+
+        Leg<R> leg = legs.get(index);
+        CompletableFuture<Void> dispatched = new CompletableFuture<>();
+        CompletableFuture<R> future;
+        try {
+            future = leg.launcher().apply(dispatched);
+        } catch (RuntimeException exception) {
+            future = CompletableFuture.failedFuture(exception);
+        }
+        boolean accepted;
+        synchronized (this) {
+            accepted = !result.isDone();
+            if (accepted) {
+                launched.add(future);
+            }
+        }
+        if (!accepted) {
+            future.cancel(true);
+            return;
+        }
+        CompletableFuture<R> started = future;
+
+        if (leg.hedgeDelayMillis() >= 0 && index + 1 < legs.size()) {
+            dispatched.thenRun(() -> CompletableFuture.delayedExecutor(leg.hedgeDelayMillis(), TimeUnit.MILLISECONDS).execute(() -> {
+                if (!result.isDone() && !started.isDone()) {
+                    LOGGER.info("{} hedge: {} slower than {}ms after dispatch, start {}", label, leg.name(), leg.hedgeDelayMillis(), legs.get(index + 1).name());
+                    launchNext(index + 1);
+                }
+            }));
+        }
+        started.whenComplete((value, error) -> onComplete(index, value, error));
+    }
+
+    private void onComplete(int index, R value, Throwable error) {
+        if (error == null) {
+            result.complete(value);
+            return;
+        }
+        Throwable cause = OcrFanOut.unwrap(error);
+        int fallbackIndex = -1;
+        Throwable finalError = null;
+        synchronized (this) {
+            if (result.isDone()) {
+                return;
+            }
+            errors[index] = cause;
+            failed++;
+            if (failed == nextIndex && nextIndex < legs.size()) {
+                fallbackIndex = nextIndex;
+            }
+            if (failed == legs.size()) {
+                for (Throwable candidate : errors) {
+                    if (candidate != null) {
+                        finalError = candidate;
+                        break;
+                    }
+                }
+            }
+        }
+        if (finalError != null) {
+            result.completeExceptionally(finalError);
+            return;
+        }
+        if (fallbackIndex >= 0) {
+            LOGGER.warn("{} fallback: {} failed, try {}. reason={}", label, legs.get(index).name(), legs.get(fallbackIndex).name(), cause.getMessage());
+            launchNext(fallbackIndex);
+        }
+    }
+
+    private void cancelLaunched() {
+        List<CompletableFuture<R>> pending;
+        synchronized (this) {
+            pending = new ArrayList<>(launched);
+            launched.clear();
+        }
+        for (CompletableFuture<R> future : pending) {
+            future.cancel(true);
+        }
+    }
+
+    record Leg<R>(String name, Function<CompletableFuture<Void>, CompletableFuture<R>> launcher, long hedgeDelayMillis) {}
+}
@@ -0,0 +1,81 @@
+package com.pindou.app.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+final class OcrLatencyHistogram {
+    private static final double BUCKET_RATIO = 1.1;
+    private static final int BUCKET_COUNT = 128;
+    private static final long DECAY_THRESHOLD = 1024;
+
+    private final String endpoint;
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long total;
+    private long samples;
+    private long censored;
+    private long maxMillis;
+
+    OcrLatencyHistogram(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    synchronized void record(long millis) {
+        long value = Math.max(1L, millis);
+        counts[bucketOf(value)]++;
+        total++;
+        samples++;
+        maxMillis = Math.max(maxMillis, value);
+        if (total >= DECAY_THRESHOLD) {
+            total = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] >>= 1;
+                total += counts[i];
+            }
+        }
+    }
+
+    synchronized void recordCensored() {
+        censored++;
+    }
+
+    synchronized long count() {
+        return total;
+    }
+
+    synchronized long percentileMillis(double percentile) {
+        if (total == 0) {
+            return -1L;
+        }
+        long rank = (long) Math.ceil(Math.max(0.0, Math.min(1.0, percentile)) * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) {
+                return upperBoundOf(i);
+            }
+        }
+        return upperBoundOf(BUCKET_COUNT - 1);
+    }
+
+    synchronized Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("endpoint", endpoint);
+        result.put("samples", samples);
+        result.put("censored", censored);
+        result.put("windowCount", total);
+        result.put("p50Millis", percentileMillis(0.5));
+        result.put("p90Millis", percentileMillis(0.9));
+        result.put("p99Millis", percentileMillis(0.99));
+        result.put("maxMillis", maxMillis);
+        return result;
+    }
+
+    private static int bucketOf(long millis) {
+        int bucket = (int) (Math.log(millis) / Math.log(BUCKET_RATIO));
+        return Math.max(0, Math.min(BUCKET_COUNT - 1, bucket));
+    }
+
+    private static long upperBoundOf(int bucket) {
+        return (long) Math.ceil(Math.pow(BUCKET_RATIO, bucket + 1));
+    }
+}
@@ -0,0 +1,179 @@
+package com.pindou.app.service;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+final class OcrMosaic {
+    private final List<Placement> placements;
+    private final int width;
+    private final int height;
+
+    private OcrMosaic(List<Placement> placements, int width, int height) {
+        this.placements = List.copyOf(placements);
+        this.width = width;
+        this.height = height;
+    }
+
+    static List<OcrMosaic> pack(List<Dimension> sizes, int maxSide, int maxTiles, int gutter) {
+        List<OcrMosaic> result = new ArrayList<>();
+        List<Placement> current = new ArrayList<>();
+        int cursorX = gutter;
+        int cursorY = gutter;
+        int shelfHeight = 0;
+        int usedWidth = 0;
+
+        for (int index = 0; index < sizes.size(); index++) {
+            Dimension size = sizes.get(index);
+            boolean fits = size != null
+                    && maxTiles > 1
+                    && size.width > 0
+                    && size.height > 0
+                    && size.width + gutter * 2 <= maxSide
+                    && size.height + gutter * 2 <= maxSide;
+            if (!fits) {
+                close(result, current, usedWidth, cursorY + shelfHeight + gutter);
+                current = new ArrayList<>();
+                cursorX = gutter;
+                cursorY = gutter;
+                shelfHeight = 0;
+                usedWidth = 0;
+                int singleWidth = size == null ? 0 : size.width;
+                int singleHeight = size == null ? 0 : size.height;
+                result.add(new OcrMosaic(List.of(new Placement(index, 0, 0, singleWidth, singleHeight)), singleWidth, singleHeight));
+                continue;
+            }
+
+            if (cursorX + size.width + gutter > maxSide) {
+                cursorX = gutter;
+                cursorY += shelfHeight + gutter;
+                shelfHeight = 0;
+            }
+            if (current.size() >= maxTiles || cursorY + size.height + gutter > maxSide) {
+                close(result, current, usedWidth, cursorY + shelfHeight + gutter);
+                current = new ArrayList<>();
+                cursorX = gutter;
+                cursorY = gutter;
+                shelfHeight = 0;
+                usedWidth = 0;
+            }
+
+            current.add(new Placement(index, cursorX, cursorY, size.width, size.height));
+            cursorX += size.width + gutter;
+            shelfHeight = Math.max(shelfHeight, size.height);
+            usedWidth = Math.max(usedWidth, cursorX);
+        }
+        close(result, current, usedWidth, cursorY + shelfHeight + gutter);
+        return result;
+    }
+
+    private static void close(List<OcrMosaic> result, List<Placement> placements, int width, int height) {
+        if (placements.isEmpty()) {
+            return;
+        }
+        if (placements.size() == 1) {
+            Placement only = placements.get(0);
+            result.add(new OcrMosaic(List.of(new Placement(only.index(), 0, 0, only.width(), only.height())), only.width(), only.height()));
+            return;
+        }
+        result.add(new OcrMosaic(placements, width, height));
+    }
+
+    boolean isComposite() {
+        return placements.size() > 1;
+    }
+
+    List<Placement> placements() {
+        return placements;
+    }
+
+    BufferedImage render(IntFunction<BufferedImage> images) {
+        BufferedImage canvas = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = canvas.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            for (Placement placement : placements) {
+                BufferedImage image = images.apply(placement.index());
+                if (image != null) {
+                    graphics.drawImage(image, placement.x(), placement.y(), placement.width(), placement.height(), null);
+                }
+            }
+        } finally {
+            graphics.dispose();
+        }
+        return canvas;
+    }
+
+    Placement placementNear(int x, int top, int height) {
+        Placement best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        int bestOverlap = 0;
+        for (Placement placement : placements) {
+            int overlap = Math.min(top + height, placement.y() + placement.height()) - Math.max(top, placement.y());
+            if (overlap <= 0) {
+                continue;
+            }
+            int distance = x < placement.x()
+                    ? placement.x() - x
+                    : Math.max(0, x - (placement.x() + placement.width() - 1));
+            if (distance < bestDistance || (distance == bestDistance && overlap > bestOverlap)) {
+                best = placement;
+                bestDistance = distance;
+                bestOverlap = overlap;
+            }
+        }
+        return best;
+    }
+
+    // 百度可能把同一行跨越间隔的多个切片合并成一个框，按字符位置拆回最近的切片，坐标换算到切片内
+    List<WordSlice> slice(String words, int left, int top, int width, int height, Placement placement) {
+        List<WordSlice> result = new ArrayList<>();
+        int length = words.length();
+        int start = 0;
+        Placement owner = null;
+        for (int i = 0; i <= length; i++) {
+            Placement current = i == length
+                    ? null
+                    : placementNear(left + (int) ((i + 0.5) * width / length), top, height);
+            if (i < length && current == owner) {
+                continue;
+            }
+            if (owner == placement) {
+                WordSlice slice = clip(words, start, i, left, top, width, height, placement);
+                if (slice != null) {
+                    result.add(slice);
+                }
+            }
+            owner = current;
+            start = i;
+        }
+        return result;
+    }
+
+    private static WordSlice clip(String words, int start, int end, int left, int top, int width, int height, Placement placement) {
+        String text = words.substring(start, end).trim();
+        if (text.isBlank()) {
+            return null;
+        }
+        int length = words.length();
+        int sliceLeft = left + (int) ((long) start * width / length);
+        int sliceRight = left + (int) ((long) end * width / length);
+        int clippedLeft = Math.max(0, sliceLeft - placement.x());
+        int clippedRight = Math.min(placement.width(), sliceRight - placement.x());
+        int clippedTop = Math.max(0, top - placement.y());
+        int clippedBottom = Math.min(placement.height(), top + height - placement.y());
+        if (clippedRight <= clippedLeft || clippedBottom <= clippedTop) {
+            return null;
+        }
+        return new WordSlice(text, clippedLeft, clippedTop, clippedRight - clippedLeft, clippedBottom - clippedTop);
+    }
+
+    record Placement(int index, int x, int y, int width, int height) {}
+
+    record WordSlice(String words, int left, int top, int width, int height) {}
+}
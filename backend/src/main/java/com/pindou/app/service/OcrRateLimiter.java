@@ -0,0 +1,95 @@
+package com.pindou.app.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+final class OcrRateLimiter {
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final LongSupplier nanoClock;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    OcrRateLimiter(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    OcrRateLimiter(double permitsPerSecond, int burst, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("baidu.ocr.rate.permits-per-second 必须大于 0");
+        }
+        this.emissionIntervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * (Math.max(1, burst) - 1L);
+        this.nanoClock = nanoClock;
+    }
+
+    long reserve(String credential, String endpoint) {
+        Bucket bucket = buckets.computeIfAbsent(credential + "/" + endpoint, key -> new Bucket(credential, endpoint));
+        return bucket.reserve(nanoClock.getAsLong(), emissionIntervalNanos, burstToleranceNanos);
+    }
+
+    List<Map<String, Object>> snapshot() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Bucket bucket : buckets.values()) {
+            result.add(bucket.snapshot());
+        }
+        result.sort(Comparator.comparing((Map<String, Object> item) -> String.valueOf(item.get("credential")))
+                .thenComparing(item -> String.valueOf(item.get("endpoint"))));
+        return result;
+    }
+
+    private static final class Bucket {
+        private final String credential;
+        private final String endpoint;
+        private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+        private final LongAdder permits = new LongAdder();
+        private final LongAdder delayedPermits = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        private Bucket(String credential, String endpoint) {
+            this.credential = credential;
+            this.endpoint = endpoint;
+        }
+
+        private long reserve(long now, long emissionIntervalNanos, long burstToleranceNanos) {
+            long waitNanos;
+            while (true) {
+                long arrival = theoreticalArrival.get();
+                long start = arrival == Long.MIN_VALUE ? now : Math.max(arrival, now);
+                if (theoreticalArrival.compareAndSet(arrival, start + emissionIntervalNanos)) {
+                    waitNanos = Math.max(0L, start - burstToleranceNanos - now);
+                    break;
+                }
+            }
+            permits.increment();
+            if (waitNanos > 0) {
+                delayedPermits.increment();
+                totalWaitNanos.add(waitNanos);
+                maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+            }
+            return waitNanos;
+        }
+
+        private Map<String, Object> snapshot() {
+            long count = permits.sum();
+            long totalWait = totalWaitNanos.sum();
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("credential", credential);
+            result.put("endpoint", endpoint);
+            result.put("permits", count);
+            result.put("delayedPermits", delayedPermits.sum());
+            result.put("totalWaitMillis", TimeUnit.NANOSECONDS.toMillis(totalWait));
+            result.put("avgWaitMillis", count == 0 ? 0.0 : totalWait / 1_000_000.0 / count);
+            result.put("maxWaitMillis", TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+            return result;
+        }
+    }
+}
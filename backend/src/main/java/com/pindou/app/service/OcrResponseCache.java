@@ -0,0 +1,273 @@
+package com.pindou.app.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+@Component
+public class OcrResponseCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OcrResponseCache.class);
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long memoryMaxBytes;
+    private final long diskMaxBytes;
+    private final LinkedHashMap<String, String> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryBytes;
+    private final Map<String, Long> diskEntries = new ConcurrentHashMap<>();
+    private final AtomicLong diskBytes = new AtomicLong();
+    private volatile boolean diskIndexed;
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder memoryEvictions = new LongAdder();
+    private final LongAdder diskEvictions = new LongAdder();
+    private final ExecutorService diskWriter = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ocr-cache-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OcrResponseCache(
+            @Value("${baidu.ocr.cache.enabled:true}") boolean enabled,
+            @Value("${baidu.ocr.cache.directory:./data/ocr-cache}") String directory,
+            @Value("${baidu.ocr.cache.memory-max-bytes:33554432}") long memoryMaxBytes,
+            @Value("${baidu.ocr.cache.disk-max-bytes:536870912}") long diskMaxBytes
+    ) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.memoryMaxBytes = Math.max(0L, memoryMaxBytes);
+        this.diskMaxBytes = Math.max(0L, diskMaxBytes);
+    }
+
+    public String key(String contentHash, String endpoint, boolean detectDirection, boolean needLocation) {
+        if (!enabled || contentHash == null || contentHash.isBlank()) {
+            return null;
+        }
+        return contentHash + "." + endpoint + ".d" + (detectDirection ? 1 : 0) + "l" + (needLocation ? 1 : 0);
+    }
+
+    public String get(String key) {
+        if (key == null) {
+            return null;
+        }
+        synchronized (memory) {
+            String cached = memory.get(key);
+            if (cached != null) {
+                memoryHits.increment();
+                return cached;
+            }
+        }
+        String stored = readDisk(key);
+        if (stored != null) {
+            diskHits.increment();
+            putMemory(key, stored);
+            return stored;
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(String key, String body) {
+        if (key == null || body == null || body.isBlank()) {
+            return;
+        }
+        stores.increment();
+        putMemory(key, body);
+        diskWriter.execute(() -> {
+            try {
+                writeDisk(key, body);
+            } catch (RuntimeException exception) {
+                LOGGER.warn("ocr-cache: failed to store {}. reason={}", key, exception.getMessage());
+            }
+        });
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("memoryHits", memoryHits.sum());
+        result.put("diskHits", diskHits.sum());
+        result.put("misses", misses.sum());
+        result.put("stores", stores.sum());
+        synchronized (memory) {
+            result.put("memoryEntries", memory.size());
+            result.put("memoryBytes", memoryBytes);
+        }
+        result.put("memoryEvictions", memoryEvictions.sum());
+        result.put("diskEntries", diskEntries.size());
+        result.put("diskBytes", diskBytes.get());
+        result.put("diskEvictions", diskEvictions.sum());
+        return result;
+    }
+
+    private void putMemory(String key, String body) {
+        long size = memorySize(body);
+        if (size > memoryMaxBytes) {
+            return;
+        }
+        synchronized (memory) {
+            String previous = memory.put(key, body);
+            if (previous != null) {
+                memoryBytes -= memorySize(previous);
+            }
+            memoryBytes += size;
+            Iterator<Map.Entry<String, String>> eldest = memory.entrySet().iterator();
+            while (memoryBytes > memoryMaxBytes && eldest.hasNext()) {
+                Map.Entry<String, String> entry = eldest.next();
+                memoryBytes -= memorySize(entry.getValue());
+                eldest.remove();
+                memoryEvictions.increment();
+            }
+        }
+    }
+
+    private static long memorySize(String body) {
+        return 2L * body.length();
+    }
+
+    private String readDisk(String key) {
+        ensureDiskIndexed();
+        if (!diskEntries.containsKey(key)) {
+            return null;
+        }
+        Path file = fileFor(key);
+        try {
+            String body = Files.readString(file, StandardCharsets.UTF_8);
+            try {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            } catch (IOException ignored) {
+            }
+            return body;
+        } catch (IOException exception) {
+            removeDiskEntry(key, file);
+            return null;
+        }
+    }
+
+    private void writeDisk(String key, String body) {
+        if (diskMaxBytes <= 0) {
+            return;
+        }
+        ensureDiskIndexed();
+        Path file = fileFor(key);
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), key, ".tmp");
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            Files.write(temp, bytes);
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException exception) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Long previous = diskEntries.put(key, (long) bytes.length);
+            diskBytes.addAndGet(bytes.length - (previous == null ? 0L : previous));
+        } catch (IOException exception) {
+            LOGGER.warn("ocr-cache: failed to write {}. reason={}", file, exception.getMessage());
+            return;
+        }
+        if (diskBytes.get() > diskMaxBytes) {
+            evictDisk();
+        }
+    }
+
+    private synchronized void evictDisk() {
+        if (diskBytes.get() <= diskMaxBytes) {
+            return;
+        }
+        List<DiskFile> files = new ArrayList<>();
+        for (String key : diskEntries.keySet()) {
+            Path file = fileFor(key);
+            files.add(new DiskFile(key, file, lastModifiedMillis(file)));
+        }
+        files.sort(Comparator.comparingLong(DiskFile::lastModifiedMillis));
+        long target = diskMaxBytes * 9 / 10;
+        for (DiskFile file : files) {
+            if (diskBytes.get() <= target) {
+                break;
+            }
+            removeDiskEntry(file.key(), file.path());
+            diskEvictions.increment();
+        }
+    }
+
+    private void removeDiskEntry(String key, Path file) {
+        Long size = diskEntries.remove(key);
+        if (size != null) {
+            diskBytes.addAndGet(-size);
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void ensureDiskIndexed() {
+        if (diskIndexed) {
+            return;
+        }
+        synchronized (this) {
+            if (diskIndexed) {
+                return;
+            }
+            if (Files.isDirectory(directory)) {
+                try (Stream<Path> files = Files.walk(directory, 2)) {
+                    files.filter(Files::isRegularFile).forEach(file -> {
+                        String name = file.getFileName().toString();
+                        try {
+                            if (name.endsWith(".json")) {
+                                long size = Files.size(file);
+                                diskEntries.put(name.substring(0, name.length() - ".json".length()), size);
+                                diskBytes.addAndGet(size);
+                            } else if (name.endsWith(".tmp")) {
+                                Files.deleteIfExists(file);
+                            }
+                        } catch (IOException ignored) {
+                        }
+                    });
+                } catch (IOException exception) {
+                    LOGGER.warn("ocr-cache: failed to index {}. reason={}", directory, exception.getMessage());
+                }
+            }
+            diskIndexed = true;
+        }
+    }
+
+    private Path fileFor(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + ".json");
+    }
+
+    private long lastModifiedMillis(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException exception) {
+            return 0L;
+        }
+    }
+
+    private record DiskFile(String key, Path path, long lastModifiedMillis) {}
+}
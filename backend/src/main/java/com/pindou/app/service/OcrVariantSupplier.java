@@ -0,0 +1,118 @@
+package com.pindou.app.service;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+final class OcrVariantSupplier implements Iterable<DecodedImage> {
+    private final List<Recipe> recipes = new ArrayList<>();
+    private final Set<String> recipeKeys = new LinkedHashSet<>();
+    private final Map<String, BufferedImage> rendered = new HashMap<>();
+    private final List<DecodedImage> produced = new ArrayList<>();
+    private int nextRecipe;
+
+    OcrVariantSupplier original(DecodedImage image) {
+        String payload = image == null ? null : image.base64();
+        if (payload != null && !payload.isBlank() && recipeKeys.add("original")) {
+            recipes.add(new Recipe("original", null, null, null, image));
+        }
+        return this;
+    }
+
+    OcrVariantSupplier add(String transform, String format, Supplier<BufferedImage> render, Function<BufferedImage, String> encoder) {
+        String key = transform + "/" + format;
+        if (recipeKeys.add(key)) {
+            recipes.add(new Recipe(key, transform, render, encoder, null));
+        }
+        return this;
+    }
+
+    synchronized DecodedImage get(int index) {
+        while (produced.size() <= index && nextRecipe < recipes.size()) {
+            Recipe recipe = recipes.get(nextRecipe++);
+            DecodedImage variant = produce(recipe);
+            if (variant != null) {
+                produced.add(variant);
+            }
+        }
+        return index < produced.size() ? produced.get(index) : null;
+    }
+
+    @Override
+    public Iterator<DecodedImage> iterator() {
+        return new Iterator<>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return get(index) != null;
+            }
+
+            @Override
+            public DecodedImage next() {
+                DecodedImage variant = get(index);
+                if (variant == null) {
+                    throw new NoSuchElementException();
+                }
+                index++;
+                return variant;
+            }
+        };
+    }
+
+    static <T> Supplier<T> memoize(Supplier<T> supplier) {
+        return new Supplier<>() {
+            private boolean resolved;
+            private T value;
+
+            @Override
+            public synchronized T get() {
+                if (!resolved) {
+                    value = supplier.get();
+                    resolved = true;
+                }
+                return value;
+            }
+        };
+    }
+
+    private DecodedImage produce(Recipe recipe) {
+        if (recipe.image() != null) {
+            return recipe.image();
+        }
+        try {
+            BufferedImage image = rendered.get(recipe.transform());
+            if (image == null && !rendered.containsKey(recipe.transform())) {
+                image = recipe.render().get();
+                rendered.put(recipe.transform(), image);
+            }
+            if (image == null) {
+                return null;
+            }
+            String encoded = recipe.encoder().apply(image);
+            if (encoded == null || encoded.isBlank()) {
+                return null;
+            }
+            return DecodedImage.of(encoded, image);
+        } catch (RuntimeException exception) {
+            rendered.put(recipe.transform(), null);
+            return null;
+        }
+    }
+
+    private record Recipe(
+            String key,
+            String transform,
+            Supplier<BufferedImage> render,
+            Function<BufferedImage, String> encoder,
+            DecodedImage image
+    ) {}
+}
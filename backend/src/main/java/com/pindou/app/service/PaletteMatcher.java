@@ -0,0 +1,222 @@
+package com.pindou.app.service;
+
+final class PaletteMatcher {
+    private static final int CUBE_BITS = 6;
+    private static final int CUBE_SHIFT = 8 - CUBE_BITS;
+    private static final int CUBE_SIDE = 1 << CUBE_BITS;
+
+    private final double[] labs;
+    private final int[] tree;
+    private final int[] cube;
+    private final float[] cubeMargin;
+
+    private PaletteMatcher(double[] labs) {
+        this.labs = labs;
+        int size = labs.length / 3;
+        this.tree = new int[size];
+        for (int i = 0; i < size; i++) {
+            tree[i] = i;
+        }
+        buildTree(0, size, 0);
+        this.cube = new int[CUBE_SIDE * CUBE_SIDE * CUBE_SIDE];
+        this.cubeMargin = new float[cube.length];
+    }
+
+    static PaletteMatcher of(int[] rgbs) {
+        return new PaletteMatcher(SrgbLab.toLab(rgbs));
+    }
+
+    int size() {
+        return tree.length;
+    }
+
+    // 立方格缓存中心点的最近两色和第三近距离；其余颜色到查询色的距离不小于"第三近距离 - 查询色到中心的距离"，
+    // 两个候选都比这个下界近时结果与 k-d 树精确查询一致，否则回退精确查询。并发下读到未写入的边界值 0 也只会回退
+    Match match(int rgb) {
+        int index = cubeIndex(rgb);
+        int packed = cube[index];
+        double[] center = new double[3];
+        if (packed == 0) {
+            SrgbLab.toLab(cubeCenter(index), center);
+            Search nearest = nearest(center, 3);
+            cubeMargin[index] = nearest.third < 0 ? Float.MAX_VALUE : Math.nextDown((float) Math.sqrt(nearest.thirdDistance));
+            packed = ((nearest.best + 1) << 16) | (nearest.second + 1);
+            cube[index] = packed;
+        }
+
+        int best = (packed >>> 16) - 1;
+        int second = (packed & 0xFFFF) - 1;
+        if (best < 0) {
+            return new Match(-1, Double.MAX_VALUE, -1, Double.MAX_VALUE);
+        }
+        double[] lab = new double[3];
+        SrgbLab.toLab(rgb, lab);
+        double bestDistance = Math.sqrt(distanceSquared(lab, best));
+        double secondDistance = second < 0 ? Double.MAX_VALUE : Math.sqrt(distanceSquared(lab, second));
+        if (second >= 0) {
+            SrgbLab.toLab(cubeCenter(index), center);
+            double offset = Math.sqrt(distanceSquared(lab, center));
+            if (Math.max(bestDistance, secondDistance) >= cubeMargin[index] - offset) {
+                return matchExact(lab);
+            }
+        }
+        if (secondDistance < bestDistance || (secondDistance == bestDistance && second < best)) {
+            return new Match(second, secondDistance, best, bestDistance);
+        }
+        return new Match(best, bestDistance, second, secondDistance);
+    }
+
+    Match matchExact(int rgb) {
+        double[] lab = new double[3];
+        SrgbLab.toLab(rgb, lab);
+        return matchExact(lab);
+    }
+
+    private Match matchExact(double[] lab) {
+        Search nearest = nearest(lab, 2);
+        return new Match(
+                nearest.best,
+                nearest.best < 0 ? Double.MAX_VALUE : Math.sqrt(nearest.bestDistance),
+                nearest.second,
+                nearest.second < 0 ? Double.MAX_VALUE : Math.sqrt(nearest.secondDistance)
+        );
+    }
+
+    private Search nearest(double[] lab, int count) {
+        Search search = new Search(count);
+        search(lab, 0, tree.length, 0, search);
+        return search;
+    }
+
+    private void search(double[] lab, int from, int to, int axis, Search search) {
+        if (from >= to) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        int id = tree[middle];
+        search.offer(id, distanceSquared(lab, id));
+
+        double delta = lab[axis] - labs[id * 3 + axis];
+        int nextAxis = (axis + 1) % 3;
+        if (delta < 0) {
+            search(lab, from, middle, nextAxis, search);
+            if (delta * delta <= search.bound()) {
+                search(lab, middle + 1, to, nextAxis, search);
+            }
+        } else {
+            search(lab, middle + 1, to, nextAxis, search);
+            if (delta * delta <= search.bound()) {
+                search(lab, from, middle, nextAxis, search);
+            }
+        }
+    }
+
+    private void buildTree(int from, int to, int axis) {
+        if (to - from <= 1) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        select(from, to - 1, middle, axis);
+        int nextAxis = (axis + 1) % 3;
+        buildTree(from, middle, nextAxis);
+        buildTree(middle + 1, to, nextAxis);
+    }
+
+    private void select(int left, int right, int target, int axis) {
+        while (left < right) {
+            double pivot = labs[tree[(left + right) >>> 1] * 3 + axis];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (labs[tree[i] * 3 + axis] < pivot) {
+                    i++;
+                }
+                while (labs[tree[j] * 3 + axis] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = tree[i];
+                    tree[i] = tree[j];
+                    tree[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (target <= j) {
+                right = j;
+            } else if (target >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private double distanceSquared(double[] lab, int id) {
+        double dL = lab[0] - labs[id * 3];
+        double dA = lab[1] - labs[id * 3 + 1];
+        double dB = lab[2] - labs[id * 3 + 2];
+        return dL * dL + dA * dA + dB * dB;
+    }
+
+    private static double distanceSquared(double[] lab, double[] other) {
+        double dL = lab[0] - other[0];
+        double dA = lab[1] - other[1];
+        double dB = lab[2] - other[2];
+        return dL * dL + dA * dA + dB * dB;
+    }
+
+    private static int cubeIndex(int rgb) {
+        int red = ((rgb >> 16) & 0xFF) >> CUBE_SHIFT;
+        int green = ((rgb >> 8) & 0xFF) >> CUBE_SHIFT;
+        int blue = (rgb & 0xFF) >> CUBE_SHIFT;
+        return (red << (CUBE_BITS * 2)) | (green << CUBE_BITS) | blue;
+    }
+
+    private static int cubeCenter(int index) {
+        int half = 1 << (CUBE_SHIFT - 1);
+        int red = ((index >> (CUBE_BITS * 2)) << CUBE_SHIFT) | half;
+        int green = (((index >> CUBE_BITS) & (CUBE_SIDE - 1)) << CUBE_SHIFT) | half;
+        int blue = ((index & (CUBE_SIDE - 1)) << CUBE_SHIFT) | half;
+        return (red << 16) | (green << 8) | blue;
+    }
+
+    private static final class Search {
+        private final int count;
+        private int best = -1;
+        private int second = -1;
+        private int third = -1;
+        private double bestDistance = Double.MAX_VALUE;
+        private double secondDistance = Double.MAX_VALUE;
+        private double thirdDistance = Double.MAX_VALUE;
+
+        private Search(int count) {
+            this.count = count;
+        }
+
+        private double bound() {
+            return count > 2 ? thirdDistance : secondDistance;
+        }
+
+        private void offer(int id, double distance) {
+            if (distance < bestDistance || (distance == bestDistance && id < best)) {
+                third = second;
+                thirdDistance = secondDistance;
+                second = best;
+                secondDistance = bestDistance;
+                best = id;
+                bestDistance = distance;
+            } else if (distance < secondDistance || (distance == secondDistance && id < second)) {
+                third = second;
+                thirdDistance = secondDistance;
+                second = id;
+                secondDistance = distance;
+            } else if (count > 2 && (distance < thirdDistance || (distance == thirdDistance && id < third))) {
+                third = id;
+                thirdDistance = distance;
+            }
+        }
+    }
+
+    record Match(int best, double bestDistance, int second, double secondDistance) {}
+}
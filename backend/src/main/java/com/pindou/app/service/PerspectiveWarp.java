@@ -0,0 +1,85 @@
+package com.pindou.app.service;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.stream.IntStream;
+
+final class PerspectiveWarp {
+    private static final int BAND_ROWS = 32;
+
+    private PerspectiveWarp() {
+    }
+
+    static BufferedImage warp(BufferedImage source, double[] homography, int targetWidth, int targetHeight) {
+        BufferedImage output = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        int[] target = ((DataBufferInt) output.getRaster().getDataBuffer()).getData();
+        ImageKernels.RgbPixels pixels = ImageKernels.rgbPixels(source);
+        int bands = (targetHeight + BAND_ROWS - 1) / BAND_ROWS;
+        IntStream.range(0, bands).parallel().forEach(band -> warpRows(
+                pixels,
+                homography,
+                target,
+                targetWidth,
+                band * BAND_ROWS,
+                Math.min(targetHeight, (band + 1) * BAND_ROWS)
+        ));
+        return output;
+    }
+
+    private static void warpRows(ImageKernels.RgbPixels pixels, double[] h, int[] target, int targetWidth, int fromRow, int toRow) {
+        for (int y = fromRow; y < toRow; y++) {
+            double numeratorX = h[1] * y + h[2];
+            double numeratorY = h[4] * y + h[5];
+            double denominator = h[7] * y + h[8];
+            int row = y * targetWidth;
+            for (int x = 0; x < targetWidth; x++) {
+                if (Math.abs(denominator) < 1e-10) {
+                    target[row + x] = nearest(pixels, -1, -1);
+                } else {
+                    target[row + x] = sampleBilinear(pixels, numeratorX / denominator, numeratorY / denominator);
+                }
+                numeratorX += h[0];
+                numeratorY += h[3];
+                denominator += h[6];
+            }
+        }
+    }
+
+    private static int sampleBilinear(ImageKernels.RgbPixels pixels, double x, double y) {
+        int width = pixels.width();
+        int height = pixels.height();
+        if (x < 0 || y < 0 || x >= width - 1 || y >= height - 1) {
+            return nearest(pixels, x, y);
+        }
+
+        int x0 = (int) x;
+        int y0 = (int) y;
+        double dx = x - x0;
+        double dy = y - y0;
+
+        int[] data = pixels.data();
+        int index = pixels.offset() + y0 * pixels.stride() + x0;
+        int rgb00 = data[index];
+        int rgb10 = data[index + 1];
+        int rgb01 = data[index + pixels.stride()];
+        int rgb11 = data[index + pixels.stride() + 1];
+
+        int red = bilinearChannel((rgb00 >> 16) & 0xFF, (rgb10 >> 16) & 0xFF, (rgb01 >> 16) & 0xFF, (rgb11 >> 16) & 0xFF, dx, dy);
+        int green = bilinearChannel((rgb00 >> 8) & 0xFF, (rgb10 >> 8) & 0xFF, (rgb01 >> 8) & 0xFF, (rgb11 >> 8) & 0xFF, dx, dy);
+        int blue = bilinearChannel(rgb00 & 0xFF, rgb10 & 0xFF, rgb01 & 0xFF, rgb11 & 0xFF, dx, dy);
+        return (red << 16) | (green << 8) | blue;
+    }
+
+    private static int nearest(ImageKernels.RgbPixels pixels, double x, double y) {
+        int clampedX = (int) Math.max(0, Math.min(pixels.width() - 1, Math.round(x)));
+        int clampedY = (int) Math.max(0, Math.min(pixels.height() - 1, Math.round(y)));
+        return pixels.rgb(clampedX, clampedY) & 0xFFFFFF;
+    }
+
+    private static int bilinearChannel(int c00, int c10, int c01, int c11, double dx, double dy) {
+        double top = c00 * (1.0 - dx) + c10 * dx;
+        double bottom = c01 * (1.0 - dx) + c11 * dx;
+        int value = (int) Math.round(top * (1.0 - dy) + bottom * dy);
+        return Math.max(0, Math.min(255, value));
+    }
+}
@@ -0,0 +1,120 @@
+package com.pindou.app.service;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+final class VectorPixelKernels {
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Byte> BYTES_PER_INT_LANE =
+            VectorSpecies.of(byte.class, VectorShape.forBitSize(INTS.length() * Byte.SIZE));
+
+    private VectorPixelKernels() {
+    }
+
+    static boolean isUsable() {
+        return INTS.length() >= 4 && BYTES_PER_INT_LANE.length() == INTS.length();
+    }
+
+    static String describe() {
+        return INTS.toString();
+    }
+
+    static void grayRaw(int[] data, int from, int width, int[] raw) {
+        int bound = INTS.loopBound(width);
+        int x = 0;
+        for (; x < bound; x += INTS.length()) {
+            IntVector rgb = IntVector.fromArray(INTS, data, from + x);
+            IntVector red = rgb.lanewise(VectorOperators.LSHR, 16).and(0xFF);
+            IntVector green = rgb.lanewise(VectorOperators.LSHR, 8).and(0xFF);
+            IntVector blue = rgb.and(0xFF);
+            red.mul(77).add(green.mul(150)).add(blue.mul(29)).add(128)
+                    .lanewise(VectorOperators.ASHR, 8)
+                    .intoArray(raw, x);
+        }
+        for (; x < width; x++) {
+            int rgb = data[from + x];
+            raw[x] = (77 * ((rgb >> 16) & 0xFF) + 150 * ((rgb >> 8) & 0xFF) + 29 * (rgb & 0xFF) + 128) >> 8;
+        }
+    }
+
+    static void threshold(byte[] values, byte[] target, int threshold, boolean darkText, byte textValue, byte backgroundValue) {
+        ByteVector text = ByteVector.broadcast(BYTES, textValue);
+        ByteVector background = ByteVector.broadcast(BYTES, backgroundValue);
+        byte limit = (byte) (threshold ^ 0x80);
+        int bound = BYTES.loopBound(values.length);
+        int i = 0;
+        for (; i < bound; i += BYTES.length()) {
+            ByteVector signed = ByteVector.fromArray(BYTES, values, i).lanewise(VectorOperators.XOR, (byte) 0x80);
+            VectorMask<Byte> textPixels = darkText
+                    ? signed.compare(VectorOperators.LE, limit)
+                    : signed.compare(VectorOperators.GE, limit);
+            background.blend(text, textPixels).intoArray(target, i);
+        }
+        for (; i < values.length; i++) {
+            int lum = values[i] & 0xFF;
+            boolean textPixel = darkText ? lum <= threshold : lum >= threshold;
+            target[i] = textPixel ? textValue : backgroundValue;
+        }
+    }
+
+    static int countSet(byte[] mask, int from, int length) {
+        int bound = BYTES.loopBound(length);
+        int count = 0;
+        int i = 0;
+        for (; i < bound; i += BYTES.length()) {
+            count += ByteVector.fromArray(BYTES, mask, from + i).compare(VectorOperators.NE, (byte) 0).trueCount();
+        }
+        for (; i < length; i++) {
+            count += mask[from + i];
+        }
+        return count;
+    }
+
+    static void addRow(byte[] mask, int from, int[] profile) {
+        int length = profile.length;
+        int bound = INTS.loopBound(length);
+        int x = 0;
+        for (; x < bound; x += INTS.length()) {
+            IntVector row = (IntVector) ByteVector.fromArray(BYTES_PER_INT_LANE, mask, from + x)
+                    .convertShape(VectorOperators.B2I, INTS, 0);
+            IntVector.fromArray(INTS, profile, x).add(row).intoArray(profile, x);
+        }
+        for (; x < length; x++) {
+            profile[x] += mask[from + x];
+        }
+    }
+
+    static void accumulateNonDark(int[] data, int from, int to, long[] sums) {
+        int bound = from + INTS.loopBound(to - from);
+        long sumRed = 0;
+        long sumGreen = 0;
+        long sumBlue = 0;
+        long count = 0;
+        int x = from;
+        for (; x < bound; x += INTS.length()) {
+            IntVector rgb = IntVector.fromArray(INTS, data, x);
+            IntVector red = rgb.lanewise(VectorOperators.LSHR, 16).and(0xFF);
+            IntVector green = rgb.lanewise(VectorOperators.LSHR, 8).and(0xFF);
+            IntVector blue = rgb.and(0xFF);
+            IntVector spread = red.max(green).max(blue).sub(red.min(green).min(blue));
+            IntVector weighted = red.mul(299).add(green.mul(587)).add(blue.mul(114));
+            VectorMask<Integer> kept = weighted.compare(VectorOperators.LT, 28000)
+                    .and(spread.compare(VectorOperators.LT, 40))
+                    .not();
+            sumRed += red.reduceLanes(VectorOperators.ADD, kept);
+            sumGreen += green.reduceLanes(VectorOperators.ADD, kept);
+            sumBlue += blue.reduceLanes(VectorOperators.ADD, kept);
+            count += kept.trueCount();
+        }
+        sums[0] += sumRed;
+        sums[1] += sumGreen;
+        sums[2] += sumBlue;
+        sums[3] += count;
+        ImageKernels.accumulateNonDarkScalar(data, x, to, sums);
+    }
+}
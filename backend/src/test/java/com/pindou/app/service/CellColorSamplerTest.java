@@ -0,0 +1,145 @@
+package com.pindou.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CellColorSamplerTest {
+    private static final int[][] GRIDS = {
+            {1, 1}, {2, 3}, {7, 5}, {10, 10}, {13, 29}, {32, 48}, {40, 40}, {52, 52}
+    };
+
+    @Test
+    void meanRgbMatchesPerCellScan() {
+        Random random = new Random(20260418L);
+        int[][] sizes = {{97, 61}, {100, 100}, {33, 47}, {255, 129}, {48, 32}, {7, 9}};
+        for (int[] size : sizes) {
+            BufferedImage image = randomImage(random, size[0], size[1], BufferedImage.TYPE_INT_RGB);
+            for (int[] grid : GRIDS) {
+                assertSamplerMatches(image, grid[0], grid[1]);
+            }
+        }
+    }
+
+    @Test
+    void meanRgbMatchesPerCellScanOnOtherRasters() {
+        Random random = new Random(11L);
+        BufferedImage parent = randomImage(random, 320, 200, BufferedImage.TYPE_INT_RGB);
+        BufferedImage subimage = parent.getSubimage(17, 23, 211, 143);
+        BufferedImage bgr = randomImage(random, 131, 77, BufferedImage.TYPE_3BYTE_BGR);
+        for (int[] grid : GRIDS) {
+            assertSamplerMatches(subimage, grid[0], grid[1]);
+            assertSamplerMatches(bgr, grid[0], grid[1]);
+        }
+    }
+
+    @Test
+    void cellsClippedAtImageBordersMatchPerCellScan() {
+        Random random = new Random(5L);
+        // 网格比图像更密时，单元格内缩区域为空或整格落在边界外
+        BufferedImage image = randomImage(random, 9, 6, BufferedImage.TYPE_INT_RGB);
+        assertSamplerMatches(image, 6, 9);
+        assertSamplerMatches(image, 8, 12);
+        assertSamplerMatches(image, 13, 20);
+        assertSamplerMatches(randomImage(random, 1, 1, BufferedImage.TYPE_INT_RGB), 3, 3);
+        assertSamplerMatches(randomImage(random, 3, 50, BufferedImage.TYPE_INT_RGB), 10, 4);
+    }
+
+    @Test
+    void darkCellsHaveNoSample() {
+        BufferedImage image = new BufferedImage(40, 40, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 40; y++) {
+            for (int x = 0; x < 40; x++) {
+                image.setRGB(x, y, x < 20 ? 0x101010 : 0x3366CC);
+            }
+        }
+        CellColorSampler sampler = CellColorSampler.build(ImageKernels.rgbPixels(image), 2, 2);
+        assertEquals(CellColorSampler.NO_SAMPLE, sampler.meanRgb(0, 0));
+        assertEquals(0x3366CC, sampler.meanRgb(1, 1));
+        assertEquals(CellColorSampler.NO_SAMPLE, sampler.meanRgb(2, 0));
+    }
+
+    private static void assertSamplerMatches(BufferedImage image, int rows, int cols) {
+        CellColorSampler sampler = CellColorSampler.build(ImageKernels.rgbPixels(image), rows, cols);
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                assertEquals(
+                        baselineMeanRgb(image, row, col, rows, cols),
+                        sampler.meanRgb(row, col),
+                        image.getWidth() + "x" + image.getHeight() + " grid=" + rows + "x" + cols + " cell=" + row + "," + col
+                );
+            }
+        }
+    }
+
+    // 改写前 BeadService.sampleCellColor 的逐格扫描实现
+    private static int baselineMeanRgb(BufferedImage image, int row, int col, int rows, int cols) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int xStart = (int) Math.floor(col * (double) width / cols);
+        int xEnd = (int) Math.ceil((col + 1) * (double) width / cols);
+        int yStart = (int) Math.floor(row * (double) height / rows);
+        int yEnd = (int) Math.ceil((row + 1) * (double) height / rows);
+
+        int xMargin = Math.max(1, (xEnd - xStart) / 5);
+        int yMargin = Math.max(1, (yEnd - yStart) / 5);
+        int sx = Math.max(0, xStart + xMargin);
+        int ex = Math.min(width, xEnd - xMargin);
+        int sy = Math.max(0, yStart + yMargin);
+        int ey = Math.min(height, yEnd - yMargin);
+
+        if (ex <= sx || ey <= sy) {
+            sx = Math.max(0, xStart);
+            ex = Math.min(width, xEnd);
+            sy = Math.max(0, yStart);
+            ey = Math.min(height, yEnd);
+            if (ex <= sx || ey <= sy) {
+                return CellColorSampler.NO_SAMPLE;
+            }
+        }
+
+        long sumR = 0;
+        long sumG = 0;
+        long sumB = 0;
+        int count = 0;
+        for (int y = sy; y < ey; y++) {
+            for (int x = sx; x < ex; x++) {
+                int rgb = image.getRGB(x, y);
+                int red = (rgb >> 16) & 0xFF;
+                int green = (rgb >> 8) & 0xFF;
+                int blue = rgb & 0xFF;
+                int max = Math.max(red, Math.max(green, blue));
+                int min = Math.min(red, Math.min(green, blue));
+                int lum = (red * 299 + green * 587 + blue * 114) / 1000;
+                if (lum < 28 && (max - min) < 40) {
+                    continue;
+                }
+                sumR += red;
+                sumG += green;
+                sumB += blue;
+                count++;
+            }
+        }
+        if (count <= 0) {
+            return CellColorSampler.NO_SAMPLE;
+        }
+        int avgR = (int) Math.round(sumR / (double) count);
+        int avgG = (int) Math.round(sumG / (double) count);
+        int avgB = (int) Math.round(sumB / (double) count);
+        return (avgR << 16) | (avgG << 8) | avgB;
+    }
+
+    private static BufferedImage randomImage(Random random, int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int rgb = random.nextInt(4) == 0 ? random.nextInt(0x202020) : random.nextInt(0x1000000);
+                image.setRGB(x, y, rgb);
+            }
+        }
+        return image;
+    }
+}
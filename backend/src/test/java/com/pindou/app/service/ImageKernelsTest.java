@@ -0,0 +1,228 @@
+package com.pindou.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ImageKernelsTest {
+    private static final int[] WIDTHS = {1, 3, 7, 8, 15, 16, 17, 31, 33, 63, 65, 127, 129, 257};
+    private static final int[] TYPES = {BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_INT_ARGB};
+
+    @Test
+    void grayscaleMatchesGraphicsConversion() {
+        Random random = new Random(20260418L);
+        for (int type : TYPES) {
+            for (int width : WIDTHS) {
+                BufferedImage image = randomImage(random, width, 5, type);
+                BufferedImage expected = baselineGrayscale(image);
+
+                ImageKernels.GrayPlane plane = ImageKernels.grayscale(image);
+
+                assertArrayEquals(grayValues(expected), plane.values(), "type=" + type + " width=" + width);
+                assertArrayEquals(histogram(expected), plane.histogram(), "type=" + type + " width=" + width);
+                assertEquals(baselineOtsuThreshold(expected), ImageKernels.otsuThreshold(plane), "type=" + type + " width=" + width);
+            }
+        }
+    }
+
+    @Test
+    void grayscaleReadsSubimageRasters() {
+        Random random = new Random(7L);
+        BufferedImage parent = randomImage(random, 300, 40, BufferedImage.TYPE_INT_RGB);
+        for (int width : WIDTHS) {
+            BufferedImage image = parent.getSubimage(13, 9, width, 17);
+            assertArrayEquals(grayValues(baselineGrayscale(image)), ImageKernels.grayscale(image).values(), "width=" + width);
+        }
+    }
+
+    @Test
+    void binaryContrastAndMaskMatchPerPixelLoops() {
+        Random random = new Random(42L);
+        for (int width : WIDTHS) {
+            BufferedImage image = randomImage(random, width, 6, BufferedImage.TYPE_INT_RGB);
+            BufferedImage gray = baselineGrayscale(image);
+            ImageKernels.GrayPlane plane = ImageKernels.grayscale(image);
+            int threshold = baselineOtsuThreshold(gray);
+
+            for (boolean darkText : new boolean[]{true, false}) {
+                BufferedImage expected = baselineBinary(gray, threshold, darkText);
+                assertArrayEquals(pixels(expected), pixels(ImageKernels.toBinaryImage(plane, threshold, darkText)), "width=" + width);
+
+                ImageKernels.BinaryMask mask = ImageKernels.binarize(plane, threshold, darkText);
+                byte[] expectedMask = new byte[width * gray.getHeight()];
+                for (int y = 0; y < gray.getHeight(); y++) {
+                    for (int x = 0; x < width; x++) {
+                        expectedMask[y * width + x] = (expected.getRGB(x, y) & 0xFF) <= 110 ? (byte) 1 : (byte) 0;
+                    }
+                }
+                assertArrayEquals(expectedMask, mask.mask(), "width=" + width);
+            }
+            assertArrayEquals(pixels(baselineContrast(gray, 1.45)), pixels(ImageKernels.toContrastImage(plane, 1.45)), "width=" + width);
+        }
+    }
+
+    @Test
+    void vectorKernelsMatchScalarKernels() {
+        assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(), "jdk.incubator.vector 模块未加载");
+        assumeTrue(VectorPixelKernels.isUsable(), "当前 CPU 向量宽度不足");
+
+        Random random = new Random(99L);
+        for (int width : WIDTHS) {
+            int from = 3;
+            int[] data = new int[from + width];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = random.nextInt();
+            }
+
+            int[] vectorRaw = new int[width];
+            int[] scalarRaw = new int[width];
+            VectorPixelKernels.grayRaw(data, from, width, vectorRaw);
+            ImageKernels.grayRawScalar(data, from, width, scalarRaw);
+            assertArrayEquals(scalarRaw, vectorRaw, "grayRaw width=" + width);
+
+            long[] vectorSums = new long[4];
+            long[] scalarSums = new long[4];
+            VectorPixelKernels.accumulateNonDark(data, from, from + width, vectorSums);
+            ImageKernels.accumulateNonDarkScalar(data, from, from + width, scalarSums);
+            assertArrayEquals(scalarSums, vectorSums, "accumulateNonDark width=" + width);
+
+            byte[] values = new byte[width];
+            random.nextBytes(values);
+            for (int threshold : new int[]{0, 1, 110, 127, 128, 200, 255}) {
+                for (boolean darkText : new boolean[]{true, false}) {
+                    byte[] vectorTarget = new byte[width];
+                    byte[] scalarTarget = new byte[width];
+                    VectorPixelKernels.threshold(values, vectorTarget, threshold, darkText, (byte) 1, (byte) 0);
+                    ImageKernels.thresholdScalar(values, scalarTarget, threshold, darkText, (byte) 1, (byte) 0);
+                    assertArrayEquals(scalarTarget, vectorTarget, "threshold=" + threshold + " width=" + width);
+                }
+            }
+
+            byte[] mask = new byte[from + width];
+            for (int i = 0; i < mask.length; i++) {
+                mask[i] = (byte) random.nextInt(2);
+            }
+            int expectedCount = 0;
+            int[] expectedProfile = new int[width];
+            for (int x = 0; x < width; x++) {
+                expectedCount += mask[from + x];
+                expectedProfile[x] = 5 + mask[from + x];
+            }
+            assertEquals(expectedCount, VectorPixelKernels.countSet(mask, from, width), "countSet width=" + width);
+            int[] profile = new int[width];
+            Arrays.fill(profile, 5);
+            VectorPixelKernels.addRow(mask, from, profile);
+            assertArrayEquals(expectedProfile, profile, "addRow width=" + width);
+        }
+    }
+
+    private static BufferedImage randomImage(Random random, int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, 0xFF000000 | random.nextInt(0x1000000));
+            }
+        }
+        return image;
+    }
+
+    // 以下为改写前 BeadService 中逐像素 getRGB/setRGB 的原始实现
+    private static BufferedImage baselineGrayscale(BufferedImage input) {
+        BufferedImage gray = new BufferedImage(input.getWidth(), input.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = gray.createGraphics();
+        graphics.drawImage(input, 0, 0, null);
+        graphics.dispose();
+        return gray;
+    }
+
+    private static BufferedImage baselineContrast(BufferedImage input, double factor) {
+        BufferedImage output = new BufferedImage(input.getWidth(), input.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
+        for (int y = 0; y < input.getHeight(); y++) {
+            for (int x = 0; x < input.getWidth(); x++) {
+                int lum = input.getRGB(x, y) & 0xFF;
+                int enhanced = (int) Math.round((lum - 128) * factor + 128);
+                int clamped = Math.max(0, Math.min(255, enhanced));
+                output.setRGB(x, y, (clamped << 16) | (clamped << 8) | clamped);
+            }
+        }
+        return output;
+    }
+
+    private static BufferedImage baselineBinary(BufferedImage gray, int threshold, boolean darkText) {
+        BufferedImage output = new BufferedImage(gray.getWidth(), gray.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
+        for (int y = 0; y < gray.getHeight(); y++) {
+            for (int x = 0; x < gray.getWidth(); x++) {
+                int lum = gray.getRGB(x, y) & 0xFF;
+                boolean textPixel = darkText ? lum <= threshold : lum >= threshold;
+                int value = textPixel ? 0 : 255;
+                output.setRGB(x, y, (value << 16) | (value << 8) | value);
+            }
+        }
+        return output;
+    }
+
+    private static int baselineOtsuThreshold(BufferedImage gray) {
+        int[] histogram = histogram(gray);
+        int total = gray.getWidth() * gray.getHeight();
+
+        double sum = 0;
+        for (int i = 0; i < 256; i++) {
+            sum += i * histogram[i];
+        }
+
+        double sumBackground = 0;
+        int weightBackground = 0;
+        double maxVariance = -1;
+        int threshold = 128;
+        for (int i = 0; i < 256; i++) {
+            weightBackground += histogram[i];
+            if (weightBackground == 0) {
+                continue;
+            }
+            int weightForeground = total - weightBackground;
+            if (weightForeground == 0) {
+                break;
+            }
+            sumBackground += (double) i * histogram[i];
+            double meanBackground = sumBackground / weightBackground;
+            double meanForeground = (sum - sumBackground) / weightForeground;
+            double variance = (double) weightBackground * weightForeground * Math.pow(meanBackground - meanForeground, 2);
+            if (variance > maxVariance) {
+                maxVariance = variance;
+                threshold = i;
+            }
+        }
+        return threshold;
+    }
+
+    private static int[] histogram(BufferedImage gray) {
+        int[] histogram = new int[256];
+        for (int y = 0; y < gray.getHeight(); y++) {
+            for (int x = 0; x < gray.getWidth(); x++) {
+                histogram[gray.getRGB(x, y) & 0xFF]++;
+            }
+        }
+        return histogram;
+    }
+
+    private static byte[] grayValues(BufferedImage gray) {
+        byte[] values = new byte[gray.getWidth() * gray.getHeight()];
+        for (int y = 0; y < gray.getHeight(); y++) {
+            for (int x = 0; x < gray.getWidth(); x++) {
+                values[y * gray.getWidth() + x] = (byte) (gray.getRGB(x, y) & 0xFF);
+            }
+        }
+        return values;
+    }
+
+    private static int[] pixels(BufferedImage image) {
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+    }
+}
@@ -0,0 +1,48 @@
+package com.pindou.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OcrDeadlineTest {
+    @Test
+    void expiryCancelsPendingBoundFuturesOnly() throws Exception {
+        OcrDeadline deadline = OcrDeadline.after(100);
+        CompletableFuture<String> pending = deadline.bind(new CompletableFuture<>());
+        CompletableFuture<String> completed = deadline.bind(new CompletableFuture<>());
+        completed.complete("done");
+
+        assertThrows(CancellationException.class, () -> pending.get(5, TimeUnit.SECONDS));
+        assertTrue(deadline.isExpired());
+        assertEquals(0L, deadline.remainingMillis());
+        assertEquals("done", completed.get());
+    }
+
+    @Test
+    void bindingAfterExpiryCancelsImmediately() throws Exception {
+        OcrDeadline deadline = OcrDeadline.after(1);
+        CompletableFuture<String> first = deadline.bind(new CompletableFuture<>());
+        assertThrows(CancellationException.class, () -> first.get(5, TimeUnit.SECONDS));
+
+        CompletableFuture<String> late = deadline.bind(new CompletableFuture<>());
+        assertTrue(late.isCancelled());
+    }
+
+    @Test
+    void unboundedDeadlineNeverCancels() {
+        OcrDeadline deadline = OcrDeadline.none();
+        CompletableFuture<String> future = new CompletableFuture<>();
+        assertSame(future, deadline.bind(future));
+        assertFalse(deadline.isExpired());
+        assertEquals(Long.MAX_VALUE, deadline.remainingMillis());
+        assertFalse(future.isCancelled());
+    }
+}
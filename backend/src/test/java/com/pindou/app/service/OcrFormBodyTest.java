@@ -0,0 +1,109 @@
+package com.pindou.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OcrFormBodyTest {
+    private static final String PARAMETERS = "&detect_direction=false&probability=false&vertexes_location=false";
+
+    @Test
+    void matchesUrlEncoderOnPayloadsWithReservedBase64Characters() throws Exception {
+        // 0xFB 0xFF 编码为 "+/8="，0xFB 0xFF 0xBF 编码为 "+/+/"，0xFF 0xFF 0xFF 0xFE 编码为 "/////g=="
+        byte[][] payloads = {
+                {},
+                {(byte) 0xFB},
+                {(byte) 0xFB, (byte) 0xFF},
+                {(byte) 0xFB, (byte) 0xFF, (byte) 0xBF},
+                {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFE},
+                "hello".getBytes(StandardCharsets.US_ASCII),
+        };
+        for (byte[] payload : payloads) {
+            assertMatchesUrlEncoder(payload);
+        }
+        String reserved = Base64.getEncoder().encodeToString(payloads[4]);
+        assertTrue(reserved.contains("/") && reserved.contains("="), reserved);
+        assertTrue(Base64.getEncoder().encodeToString(payloads[2]).contains("+"));
+    }
+
+    @Test
+    void matchesUrlEncoderOnRandomPayloads() throws Exception {
+        Random random = new Random(20260418L);
+        for (int length = 0; length < 200; length++) {
+            byte[] payload = new byte[length];
+            random.nextBytes(payload);
+            assertMatchesUrlEncoder(payload);
+        }
+        byte[] large = new byte[300_001];
+        random.nextBytes(large);
+        assertMatchesUrlEncoder(large);
+    }
+
+    @Test
+    void singleByteReadsMatchBulkReads() throws Exception {
+        byte[] payload = new byte[1000];
+        new Random(3L).nextBytes(payload);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream stream = OcrFormBody.open("image", payload, PARAMETERS)) {
+            int value;
+            while ((value = stream.read()) >= 0) {
+                out.write(value);
+            }
+        }
+        assertEquals(expected(payload), out.toString(StandardCharsets.US_ASCII));
+    }
+
+    private static void assertMatchesUrlEncoder(byte[] payload) throws Exception {
+        String expected = expected(payload);
+        HttpRequest.BodyPublisher publisher = OcrFormBody.of("image", payload, PARAMETERS);
+        assertEquals(expected.length(), publisher.contentLength(), "length=" + payload.length);
+        assertEquals(expected, publish(publisher), "length=" + payload.length);
+    }
+
+    private static String expected(byte[] payload) {
+        return "image=" + URLEncoder.encode(Base64.getEncoder().encodeToString(payload), StandardCharsets.UTF_8) + PARAMETERS;
+    }
+
+    private static String publish(HttpRequest.BodyPublisher publisher) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        publisher.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                byte[] chunk = new byte[item.remaining()];
+                item.get(chunk);
+                out.writeBytes(chunk);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(null);
+            }
+        });
+        done.get(30, TimeUnit.SECONDS);
+        return out.toString(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,103 @@
+package com.pindou.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Dimension;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OcrMosaicTest {
+    private static final int GUTTER = 20;
+
+    @Test
+    void packsTilesOnOneShelfWithGutters() {
+        OcrMosaic mosaic = rowOfThree();
+        List<OcrMosaic.Placement> placements = mosaic.placements();
+        assertEquals(3, placements.size());
+        assertEquals(new OcrMosaic.Placement(0, 20, 20, 100, 50), placements.get(0));
+        assertEquals(new OcrMosaic.Placement(1, 140, 20, 100, 50), placements.get(1));
+        assertEquals(new OcrMosaic.Placement(2, 260, 20, 100, 50), placements.get(2));
+    }
+
+    @Test
+    void boxInsideOnePlacementIsTranslatedToTileCoordinates() {
+        OcrMosaic mosaic = rowOfThree();
+        OcrMosaic.Placement first = mosaic.placements().get(0);
+        OcrMosaic.Placement second = mosaic.placements().get(1);
+
+        assertEquals(List.of(new OcrMosaic.WordSlice("H12", 10, 5, 40, 20)), mosaic.slice("H12", 30, 25, 40, 20, first));
+        assertTrue(mosaic.slice("H12", 30, 25, 40, 20, second).isEmpty());
+    }
+
+    @Test
+    void boxStraddlingOneGutterIsSplitBetweenBothPlacements() {
+        OcrMosaic mosaic = rowOfThree();
+        OcrMosaic.Placement first = mosaic.placements().get(0);
+        OcrMosaic.Placement second = mosaic.placements().get(1);
+        OcrMosaic.Placement third = mosaic.placements().get(2);
+
+        // 7 个字符各占 20px：中心 70/90/110 落在第一块，130 落在间隔中点附近，150/170/190 落在第二块
+        String words = "ABC EFG";
+        assertEquals(List.of(new OcrMosaic.WordSlice("ABC", 40, 5, 60, 20)), mosaic.slice(words, 60, 25, 140, 20, first));
+        assertEquals(List.of(new OcrMosaic.WordSlice("EFG", 0, 5, 60, 20)), mosaic.slice(words, 60, 25, 140, 20, second));
+        assertTrue(mosaic.slice(words, 60, 25, 140, 20, third).isEmpty());
+    }
+
+    @Test
+    void boxStraddlingTwoGuttersGivesEachPlacementItsRun() {
+        OcrMosaic mosaic = rowOfThree();
+        // 12 个字符各占 25px，从 x=60 到 x=360
+        String words = "H1  H2H3  H4";
+        assertEquals(List.of(new OcrMosaic.WordSlice("H1", 40, 0, 60, 10)), mosaic.slice(words, 60, 15, 300, 15, mosaic.placements().get(0)));
+        assertEquals(List.of(new OcrMosaic.WordSlice("H2H3", 0, 0, 100, 10)), mosaic.slice(words, 60, 15, 300, 15, mosaic.placements().get(1)));
+        assertEquals(List.of(new OcrMosaic.WordSlice("H4", 0, 0, 100, 10)), mosaic.slice(words, 60, 15, 300, 15, mosaic.placements().get(2)));
+    }
+
+    @Test
+    void boxOverhangingThePlacementEdgeIsClamped() {
+        OcrMosaic mosaic = rowOfThree();
+        OcrMosaic.Placement first = mosaic.placements().get(0);
+
+        // 右侧伸进间隔：字符中心都在第一块内，框宽裁到切片边界
+        assertEquals(List.of(new OcrMosaic.WordSlice("H12", 70, 10, 30, 20)), mosaic.slice("H12", 90, 30, 36, 20, first));
+        // 左侧从间隔开始：落在间隔里的字符归入最近的切片
+        assertEquals(List.of(new OcrMosaic.WordSlice("H12", 0, 10, 20, 20)), mosaic.slice("H12", 10, 30, 30, 20, first));
+        // 底部超出切片：高度裁到切片边界
+        assertEquals(List.of(new OcrMosaic.WordSlice("H12", 10, 40, 40, 10)), mosaic.slice("H12", 30, 60, 40, 20, first));
+    }
+
+    @Test
+    void boxBetweenShelvesGoesToThePlacementItOverlapsMost() {
+        OcrMosaic mosaic = OcrMosaic.pack(List.of(
+                new Dimension(100, 50),
+                new Dimension(100, 50),
+                new Dimension(100, 50)
+        ), 260, 6, GUTTER).get(0);
+        OcrMosaic.Placement top = mosaic.placements().get(0);
+        OcrMosaic.Placement bottom = mosaic.placements().get(2);
+        assertEquals(new OcrMosaic.Placement(2, 20, 90, 100, 50), bottom);
+
+        assertTrue(mosaic.slice("H12", 30, 62, 40, 40, top).isEmpty());
+        assertEquals(List.of(new OcrMosaic.WordSlice("H12", 10, 0, 40, 12)), mosaic.slice("H12", 30, 62, 40, 40, bottom));
+    }
+
+    @Test
+    void blankRunsAndBoxesOutsideEveryPlacementAreDropped() {
+        OcrMosaic mosaic = rowOfThree();
+        OcrMosaic.Placement first = mosaic.placements().get(0);
+        assertTrue(mosaic.slice("   ", 30, 25, 40, 20, first).isEmpty());
+        assertTrue(mosaic.slice("H12", 30, 75, 40, 10, first).isEmpty());
+    }
+
+    private static OcrMosaic rowOfThree() {
+        List<OcrMosaic> mosaics = OcrMosaic.pack(List.of(
+                new Dimension(100, 50),
+                new Dimension(100, 50),
+                new Dimension(100, 50)
+        ), 1000, 6, GUTTER);
+        assertEquals(1, mosaics.size());
+        return mosaics.get(0);
+    }
+}
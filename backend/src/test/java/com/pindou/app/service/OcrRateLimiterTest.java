@@ -0,0 +1,133 @@
+package com.pindou.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OcrRateLimiterTest {
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+
+    @Test
+    void twoPermitsPerSecondWithBurstOneSpacesBackToBackCalls() {
+        OcrRateLimiter limiter = new OcrRateLimiter(2, 1, clock::get);
+
+        assertEquals(0L, limiter.reserve("ak", "accurate"));
+        assertEquals(500 * MILLIS, limiter.reserve("ak", "accurate"));
+        assertEquals(1000 * MILLIS, limiter.reserve("ak", "accurate"));
+
+        advance(1000);
+        assertEquals(500 * MILLIS, limiter.reserve("ak", "accurate"));
+
+        advance(10_000);
+        assertEquals(0L, limiter.reserve("ak", "accurate"));
+        assertEquals(500 * MILLIS, limiter.reserve("ak", "accurate"));
+    }
+
+    @Test
+    void callsAtTheConfiguredRateNeverWait() {
+        OcrRateLimiter limiter = new OcrRateLimiter(2, 1, clock::get);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0L, limiter.reserve("ak", "accurate"), "call " + i);
+            advance(500);
+        }
+    }
+
+    @Test
+    void callsFasterThanTheRateAccumulateDelay() {
+        OcrRateLimiter limiter = new OcrRateLimiter(2, 1, clock::get);
+        for (int i = 0; i < 6; i++) {
+            assertEquals(i * 100 * MILLIS, limiter.reserve("ak", "accurate"), "call " + i);
+            advance(400);
+        }
+    }
+
+    @Test
+    void burstAllowsThatManyImmediateCalls() {
+        OcrRateLimiter limiter = new OcrRateLimiter(2, 3, clock::get);
+        assertEquals(0L, limiter.reserve("ak", "accurate"));
+        assertEquals(0L, limiter.reserve("ak", "accurate"));
+        assertEquals(0L, limiter.reserve("ak", "accurate"));
+        assertEquals(500 * MILLIS, limiter.reserve("ak", "accurate"));
+
+        advance(1500);
+        assertEquals(0L, limiter.reserve("ak", "accurate"));
+        assertEquals(0L, limiter.reserve("ak", "accurate"));
+        assertEquals(500 * MILLIS, limiter.reserve("ak", "accurate"));
+
+        advance(10_000);
+        assertEquals(0L, limiter.reserve("ak", "accurate"));
+        assertEquals(0L, limiter.reserve("ak", "accurate"));
+        assertEquals(0L, limiter.reserve("ak", "accurate"));
+        assertEquals(500 * MILLIS, limiter.reserve("ak", "accurate"));
+    }
+
+    @Test
+    void credentialsAndEndpointsHaveSeparateBuckets() {
+        OcrRateLimiter limiter = new OcrRateLimiter(2, 1, clock::get);
+        assertEquals(0L, limiter.reserve("ak1", "accurate"));
+        assertEquals(0L, limiter.reserve("ak2", "accurate"));
+        assertEquals(0L, limiter.reserve("ak1", "general"));
+        assertEquals(500 * MILLIS, limiter.reserve("ak1", "accurate"));
+    }
+
+    @Test
+    void concurrentCallsReceiveDistinctSlots() throws Exception {
+        OcrRateLimiter limiter = new OcrRateLimiter(2, 1, clock::get);
+        int threads = 8;
+        int callsPerThread = 250;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    List<Long> waits = new ArrayList<>();
+                    for (int i = 0; i < callsPerThread; i++) {
+                        waits.add(limiter.reserve("ak", "accurate"));
+                    }
+                    return waits;
+                }));
+            }
+            start.countDown();
+
+            List<Long> waits = new ArrayList<>();
+            for (Future<List<Long>> future : futures) {
+                waits.addAll(future.get(30, TimeUnit.SECONDS));
+            }
+            Collections.sort(waits);
+            for (int i = 0; i < waits.size(); i++) {
+                assertEquals(i * 500 * MILLIS, waits.get(i), "slot " + i);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<String, Object> snapshot = limiter.snapshot().get(0);
+        assertEquals((long) threads * callsPerThread, snapshot.get("permits"));
+        assertEquals((long) threads * callsPerThread - 1, snapshot.get("delayedPermits"));
+    }
+
+    @Test
+    void rejectsNonPositiveRate() {
+        assertThrows(IllegalArgumentException.class, () -> new OcrRateLimiter(0, 1, clock::get));
+    }
+
+    private void advance(long millis) {
+        clock.addAndGet(millis * MILLIS);
+    }
+}
@@ -0,0 +1,94 @@
+package com.pindou.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PaletteMatcherTest {
+    private static final ColorPalette PALETTE = new ColorPalette("palette/pindou-221.csv");
+
+    @Test
+    void cachedMatchEqualsExactMatchOnFullPalette() {
+        int[] rgbs = paletteRgbs();
+        PaletteMatcher matcher = PaletteMatcher.of(rgbs);
+        double[] labs = SrgbLab.toLab(rgbs);
+        Random random = new Random(20260418L);
+
+        for (int rgb : rgbs) {
+            assertMatches(matcher, labs, rgb);
+        }
+        for (int i = 0; i < 200_000; i++) {
+            assertMatches(matcher, labs, random.nextInt(0x1000000));
+        }
+    }
+
+    @Test
+    void cachedMatchEqualsExactMatchOnCandidateSubsets() {
+        int[] all = paletteRgbs();
+        Random random = new Random(7L);
+        for (int size : new int[]{1, 2, 3, 5, 17, 60}) {
+            int[] rgbs = new int[size];
+            for (int i = 0; i < size; i++) {
+                rgbs[i] = all[random.nextInt(all.length)];
+            }
+            PaletteMatcher matcher = PaletteMatcher.of(rgbs);
+            double[] labs = SrgbLab.toLab(rgbs);
+            for (int i = 0; i < 20_000; i++) {
+                assertMatches(matcher, labs, random.nextInt(0x1000000));
+            }
+        }
+    }
+
+    private static void assertMatches(PaletteMatcher matcher, double[] labs, int rgb) {
+        PaletteMatcher.Match expected = bruteForce(labs, rgb);
+        PaletteMatcher.Match exact = matcher.matchExact(rgb);
+        PaletteMatcher.Match cached = matcher.match(rgb);
+        String message = String.format("rgb=#%06X", rgb);
+        assertEquals(expected.best(), exact.best(), message);
+        assertEquals(expected.second(), exact.second(), message);
+        assertEquals(expected.best(), cached.best(), message);
+        assertEquals(expected.second(), cached.second(), message);
+        assertEquals(expected.bestDistance(), cached.bestDistance(), 1e-9, message);
+        assertEquals(expected.secondDistance(), cached.secondDistance(), 1e-9, message);
+    }
+
+    private static PaletteMatcher.Match bruteForce(double[] labs, int rgb) {
+        double[] lab = new double[3];
+        SrgbLab.toLab(rgb, lab);
+        int best = -1;
+        int second = -1;
+        double bestDistance = Double.MAX_VALUE;
+        double secondDistance = Double.MAX_VALUE;
+        for (int id = 0; id < labs.length / 3; id++) {
+            double dL = lab[0] - labs[id * 3];
+            double dA = lab[1] - labs[id * 3 + 1];
+            double dB = lab[2] - labs[id * 3 + 2];
+            double distance = dL * dL + dA * dA + dB * dB;
+            if (distance < bestDistance) {
+                second = best;
+                secondDistance = bestDistance;
+                best = id;
+                bestDistance = distance;
+            } else if (distance < secondDistance) {
+                second = id;
+                secondDistance = distance;
+            }
+        }
+        return new PaletteMatcher.Match(
+                best,
+                Math.sqrt(bestDistance),
+                second,
+                second < 0 ? Double.MAX_VALUE : Math.sqrt(secondDistance)
+        );
+    }
+
+    private static int[] paletteRgbs() {
+        int[] rgbs = new int[PALETTE.size()];
+        for (int id = 0; id < rgbs.length; id++) {
+            rgbs[id] = PALETTE.rgb(id);
+        }
+        return rgbs;
+    }
+}
@@ -0,0 +1,67 @@
+package com.pindou.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SrgbLabTest {
+    @Test
+    void everyColorIsWithinBoundOfExactFormula() {
+        double[] lab = new double[3];
+        double[] exact = new double[3];
+        double worst = 0;
+        int worstRgb = 0;
+        for (int rgb = 0; rgb < 0x1000000; rgb++) {
+            SrgbLab.toLab(rgb, lab);
+            exactLab(rgb, exact);
+            double dL = lab[0] - exact[0];
+            double dA = lab[1] - exact[1];
+            double dB = lab[2] - exact[2];
+            double deltaE = Math.sqrt(dL * dL + dA * dA + dB * dB);
+            if (deltaE > worst) {
+                worst = deltaE;
+                worstRgb = rgb;
+            }
+        }
+        assertTrue(worst < 5e-4, String.format("max ΔE=%.3g at #%06X", worst, worstRgb));
+    }
+
+    @Test
+    void paletteColorsAreWithinBoundOfExactFormula() {
+        ColorPalette palette = new ColorPalette("palette/pindou-221.csv");
+        double[] lab = new double[3];
+        double[] exact = new double[3];
+        for (int id = 0; id < palette.size(); id++) {
+            int rgb = palette.rgb(id);
+            SrgbLab.toLab(rgb, lab);
+            exactLab(rgb, exact);
+            double dL = lab[0] - exact[0];
+            double dA = lab[1] - exact[1];
+            double dB = lab[2] - exact[2];
+            assertTrue(Math.sqrt(dL * dL + dA * dA + dB * dB) < 5e-4, palette.code(id));
+        }
+    }
+
+    // 改写前 PaletteMatcher.toLab 使用 Math.pow / Math.cbrt 的精确公式
+    private static void exactLab(int rgb, double[] out) {
+        double r = linear(((rgb >> 16) & 0xFF) / 255.0);
+        double g = linear(((rgb >> 8) & 0xFF) / 255.0);
+        double b = linear((rgb & 0xFF) / 255.0);
+
+        double fx = pivot((r * 0.4124 + g * 0.3576 + b * 0.1805) / 0.95047);
+        double fy = pivot(r * 0.2126 + g * 0.7152 + b * 0.0722);
+        double fz = pivot((r * 0.0193 + g * 0.1192 + b * 0.9505) / 1.08883);
+
+        out[0] = Math.max(0.0, 116.0 * fy - 16.0);
+        out[1] = 500.0 * (fx - fy);
+        out[2] = 200.0 * (fy - fz);
+    }
+
+    private static double linear(double value) {
+        return value <= 0.04045 ? value / 12.92 : Math.pow((value + 0.055) / 1.055, 2.4);
+    }
+
+    private static double pivot(double value) {
+        return value > 0.008856 ? Math.cbrt(value) : (7.787 * value) + (16.0 / 116.0);
+    }
+}
@@ -1,6 +1,6 @@
 const { app, BrowserWindow, dialog } = require('electron')
 const path = require('path')
-const { spawn } = require('child_process')
+const { spawn, spawnSync } = require('child_process')
 const http = require('http')
 const fs = require('fs')
 const express = require('express')
@@ -166,6 +166,15 @@ async function waitForBackendReady(port, retrySeconds = 60) {
   throw new Error(`后端启动超时（${retrySeconds} 秒）`)
 }
 
+function supportsVectorModule(javaCmd) {
+  try {
+    const probe = spawnSync(javaCmd, ['--list-modules'], { encoding: 'utf8', timeout: 10000, windowsHide: true })
+    return probe.status === 0 && /^jdk\.incubator\.vector@/m.test(probe.stdout || '')
+  } catch (_) {
+    return false
+  }
+}
+
 function startBackendJar(port) {
   const jarPath = getBackendJarPath()
   if (!fs.existsSync(jarPath)) {
@@ -174,6 +183,11 @@ function startBackendJar(port) {
 
   const javaCmd = process.env.PINDOU_JAVA_CMD || 'java'
   const args = ['-jar', jarPath, `--server.port=${port}`, `--spring.datasource.url=${getBackendDatasourceUrl()}`]
+  if (supportsVectorModule(javaCmd)) {
+    args.unshift('--add-modules', 'jdk.incubator.vector')
+  } else {
+    console.log('[backend] jdk.incubator.vector not available, using scalar image kernels')
+  }
 
   console.log(`[backend] data dir: ${getBackendDataDir()}`)
 
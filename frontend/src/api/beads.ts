@@ -1,14 +1,14 @@
 import { api } from './client'
-import type { BeadProject, BeadProjectSummary, ColorRequirement, InventoryRow, UsageRow, DemandRow, GridAnalysisResult, ColorExtractionDebugResult, TodoProjectRow } from '@/types'
+import type { BeadProject, BeadProjectSummary, ColorRequirement, InventoryRow, UsageRow, DemandRow, GridAnalysisResult, ColorExtractionDebugResult, TodoProjectRow, OcrKeyPair, OcrSettings } from '@/types'
 
 export const beadApi = {
   list: () => api.get<BeadProjectSummary[]>('/beads'),
   tags: () => api.get<string[]>('/beads/tags'),
   addTag: (tag: string) => api.post<{ tag: string }>('/beads/tags', { tag }),
   deleteTag: (tag: string) => api.delete<{ affectedProjects: number }>(`/beads/tags/${encodeURIComponent(tag)}`),
-  getOcrSettings: () => api.get<{ ak: string; sk: string; ak2: string; sk2: string }>('/beads/ocr-settings'),
-  saveOcrSettings: (payload: { ak: string; sk: string; ak2: string; sk2: string }) =>
-    api.put<{ ak: string; sk: string; ak2: string; sk2: string }>('/beads/ocr-settings', payload),
+  getOcrSettings: () => api.get<OcrSettings>('/beads/ocr-settings'),
+  saveOcrSettings: (payload: { ak: string; sk: string; ak2: string; sk2: string } | { pairs: OcrKeyPair[] }) =>
+    api.put<OcrSettings>('/beads/ocr-settings', payload),
   detail: (id: number) => api.get<BeadProject>(`/beads/${id}`),
   create: (payload: Partial<BeadProject>) => api.post<BeadProject>('/beads', payload),
   update: (id: number, payload: Partial<BeadProject>) => api.put<BeadProject>(`/beads/${id}`, payload),
@@ -39,6 +39,7 @@ export const beadApi = {
     candidateCodes: string[]
     candidateQuantities?: Record<string, number>
     candidateColorHex?: Record<string, string>
+    timeoutMs?: number
   }) => api.post<GridAnalysisResult>('/beads/analyze-grid', payload),
   inventory: {
     stock: () => api.get<InventoryRow[]>('/inventory/stock'),
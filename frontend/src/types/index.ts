@@ -93,5 +93,20 @@ export interface GridAnalysisResult {
   ocrCount: number
   filledCount: number
   ocrServiceSummary?: string
+  partial?: boolean
   cells: GridAnalysisCell[]
 }
+
+export interface OcrKeyPair {
+  ak: string
+  sk: string
+  weight?: number
+}
+
+export interface OcrSettings {
+  ak: string
+  sk: string
+  ak2: string
+  sk2: string
+  pairs: OcrKeyPair[]
+}